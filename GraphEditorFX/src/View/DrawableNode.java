@@ -17,6 +17,7 @@ public class DrawableNode {
     private static final Bloom BLOOM = new Bloom(0);
     private static final String FONT_FAMILY = "Segoe UI";
     private static final double FORT_WIDTH = 0.1;
+    private static final double GOLDEN_ANGLE = 137.508;
     public static final int CIRCLE_RADIUS = 10;
 
     private Node sourceNode;
@@ -72,6 +73,12 @@ public class DrawableNode {
         return identifier;
     }
 
+    // Fill of the given color number: hues a golden angle apart, so that close numbers get
+    // distinct colors however many there are
+    public static Color paletteColor(int color) {
+        return Color.hsb(color * GOLDEN_ANGLE % 360, 0.65, 0.95);
+    }
+
     @Override
     public boolean equals(Object obj) {
         return ((DrawableNode) obj).sourceNode.equals(sourceNode);
@@ -1,8 +1,17 @@
 package View.form;
 
+import controller.Colorer;
+import controller.Coloring;
+import controller.EulerianCircuit;
+import controller.EulerianCircuits;
+import controller.EulerianTrail;
+import controller.ExactColorer;
 import controller.FileManager;
 import controller.GraphController;
 import controller.GraphProducer;
+import controller.PlanarLayout;
+import controller.dir.PlanarityVerifier;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -10,7 +19,6 @@ import javafx.event.EventHandler;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
-import javafx.scene.paint.Color;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import View.DrawableArc;
@@ -18,6 +26,7 @@ import View.DrawableNode;
 import model.*;
 
 import java.io.File;
+import java.math.BigInteger;
 import java.util.*;
 
 import static View.DrawableNode.CIRCLE_RADIUS;
@@ -27,6 +36,7 @@ import static sample.Main.MAIN_FORM_WIDTH;
 
 public class AppMenu {
     private static final String FILE_FORMAT = "*.graph";
+    private static final int CIRCUITS_PAGE_SIZE = 100;
 
     private GraphTabPane graphTabPane;
 
@@ -114,21 +124,45 @@ public class AppMenu {
     // Creating of algorithms menu
     private Menu createAlgorithmMenu() {
         Menu algorithm = new Menu("Algorithms");
-        MenuItem hamiltonianCycles = new MenuItem("Eulerian cycles");
+        MenuItem eulerianCycles = new MenuItem("Eulerian cycles");
+        MenuItem allEulerianCircuits = new MenuItem("All Eulerian circuits");
         MenuItem distanceBetweenNodes = new MenuItem("Distance between nodes");
         MenuItem pathBetweenNodes = new MenuItem("Path between nodes");
+        MenuItem planarity = new MenuItem("Planarity");
         Menu coloring = new Menu("Coloring");
         MenuItem coloringNodes = new MenuItem("Coloring of nodes");
-
-
-        hamiltonianCycles.setOnAction(findHamiltonianCyclesEventHandler);
-        coloringNodes.setOnAction(coloringNodesEventHandler);
+        MenuItem welshPowellColoring = new MenuItem("Welsh–Powell coloring");
+        MenuItem parallelColoring = new MenuItem("Parallel coloring");
+        MenuItem chromaticNumber = new MenuItem("Chromatic number");
+        CheckMenuItem liveColoring = new CheckMenuItem("Live coloring");
+
+
+        eulerianCycles.setOnAction(findEulerianTrailEventHandler);
+        allEulerianCircuits.setOnAction(allEulerianCircuitsEventHandler);
+        coloringNodes.setOnAction(coloringEventHandler(Colorer.Strategy.DSATUR));
+        welshPowellColoring.setOnAction(coloringEventHandler(Colorer.Strategy.WELSH_POWELL));
+        parallelColoring.setOnAction(coloringEventHandler(Colorer.Strategy.JONES_PLASSMANN));
+        chromaticNumber.setOnAction(chromaticNumberEventHandler);
+        liveColoring.setOnAction(e -> {
+            if (graphTabPane.currentGraphPane() != null) {
+                graphTabPane.currentGraphPane().setLiveColoring(liveColoring.isSelected());
+            } else {
+                liveColoring.setSelected(false);
+            }
+        });
+        // Live coloring is on or off for each graph apart, so the item follows the selected tab
+        graphTabPane.getTabPane().getSelectionModel().selectedItemProperty().addListener(e ->
+                liveColoring.setSelected(graphTabPane.currentGraphPane() != null
+                        && graphTabPane.currentGraphPane().isLiveColoring())
+        );
         distanceBetweenNodes.setOnAction(distanceBetweenNodesEventHandler);
 
         pathBetweenNodes.setOnAction(pathBetweenNodesEventHandler);
 
-        coloring.getItems().add(coloringNodes);
-        algorithm.getItems().addAll(hamiltonianCycles, distanceBetweenNodes, pathBetweenNodes, coloring);
+        planarity.setOnAction(planarityEventHandler);
+
+        coloring.getItems().addAll(coloringNodes, welshPowellColoring, parallelColoring, chromaticNumber, liveColoring);
+        algorithm.getItems().addAll(eulerianCycles, allEulerianCircuits, distanceBetweenNodes, pathBetweenNodes, planarity, coloring);
 
         return algorithm;
     }
@@ -151,10 +185,12 @@ public class AppMenu {
     private Menu createModificationMenu() {
         Menu modification = new Menu("Connectivity");
         MenuItem makeComplete = new MenuItem("Make connective");
+        MenuItem strongComponents = new MenuItem("Strong components");
 
         makeComplete.setOnAction(makeConnectiveEventHandler);
+        strongComponents.setOnAction(getStrongComponentsEventHandler);
 
-        modification.getItems().addAll(makeComplete);
+        modification.getItems().addAll(makeComplete, strongComponents);
 
         return modification;
     }
@@ -255,9 +291,60 @@ public class AppMenu {
             drawableNode.getShape().toFront();
         }
 
+        layOutPlanar(graphPane);
+
         return graphPane;
     }
 
+    // Planar graph is redrawn without crossings: the layout is made aside from the FX thread,
+    // then all nodes are moved at once. Others keep their random positions, as does a graph
+    // whose layout failed, which is told in a dialog
+    private void layOutPlanar(GraphPane graphPane) {
+        PlanarityVerifier planarityVerifier = new PlanarityVerifier(graphPane.getGraphController().getGraph());
+
+        Thread layoutThread = new Thread(() -> {
+            PlanarLayout planarLayout;
+
+            try {
+                if (!planarityVerifier.verify()) {
+                    return;
+                }
+
+                planarLayout = new PlanarLayout(planarityVerifier.getRotations());
+            } catch (RuntimeException | Error ex) {
+                Platform.runLater(() -> {
+                    Alert layoutError = createEmptyDialog(new Label("Planar layout wasn't made: " + ex), "Error");
+                    layoutError.getButtonTypes().add(ButtonType.OK);
+                    layoutError.show();
+                });
+                return;
+            }
+
+            Platform.runLater(() -> placeNodes(graphPane, planarityVerifier.getSnapshot(), planarLayout));
+        });
+
+        layoutThread.setDaemon(true);
+        layoutThread.start();
+    }
+
+    // Grid is stretched over the same area the random positions come from
+    private void placeNodes(GraphPane graphPane, GraphSnapshot snapshot, PlanarLayout planarLayout) {
+        double stepX = (MAIN_FORM_WIDTH - 100) / Math.max(planarLayout.getWidth(), 1);
+        double stepY = (MAIN_FORM_HEIGHT - 300) / Math.max(planarLayout.getHeight(), 1);
+
+        for (DrawableNode drawableNode : graphPane.getDrawableNodes()) {
+            int node = snapshot.indexOf(drawableNode.getSourceNode());
+
+            // Nodes added while the layout was being made stay where they are
+            if (node == -1) {
+                continue;
+            }
+
+            drawableNode.getShape().setCenterX(50 + stepX * planarLayout.xOf(node));
+            drawableNode.getShape().setCenterY(50 + stepY * (planarLayout.getHeight() - planarLayout.yOf(node)));
+        }
+    }
+
     private boolean isGraphAlreadyExist(String name) {
         for (Tab tab : graphTabPane.getManagingGraphs().keySet()) {
             if (tab.getText().equals(name)) {
@@ -377,6 +464,29 @@ public class AppMenu {
         centersDialog.show();
     };
 
+    // Taking strongly connected components, each as a line of its nodes
+    private EventHandler<ActionEvent> getStrongComponentsEventHandler = e -> {
+        ObservableList<String> strongComponents = FXCollections.observableArrayList();
+
+        try {
+            for (ObservableList<Node> component : graphTabPane.currentGraphPane().getGraphController()
+                    .getStrongComponents().components()) {
+                strongComponents.add(component.toString());
+            }
+        } catch (NullPointerException ex) {
+            return;
+        }
+
+        ListView<String> listView = new ListView<>();
+        listView.getItems().addAll(strongComponents);
+        listView.setPrefSize(MAIN_FORM_WIDTH / 5, MAIN_FORM_HEIGHT / 4);
+        listView.setEditable(false);
+
+        Alert componentsDialog = createEmptyDialog(listView, "Strong components: " + strongComponents.size());
+        componentsDialog.getButtonTypes().add(ButtonType.OK);
+        componentsDialog.show();
+    };
+
     // Clearing the graph pane with the source graph
     private EventHandler<ActionEvent> graphClearingEventHandler = e -> {
         try {
@@ -501,13 +611,12 @@ public class AppMenu {
                 
 
 
-                Integer distance = graphTabPane.currentGraphPane().getGraphController()
-                        .getDistanceMatrix().getDistancesMap()
-                        .get(begin).get(end);
+                int distance = graphTabPane.currentGraphPane().getGraphController()
+                        .getDistanceOracle().distance(begin, end);
 
-                if (distance == DistanceMatrix.INFINITY) {
+                if (distance == DistanceOracle.INFINITY) {
 
-                    if (!currentGraphPane.getGraphController().getArcs().contains(new Arc(begin, end))) {
+                    if (!currentGraphPane.getGraphController().getGraph().containsArc(begin, end)) {
                         currentGraphPane.getGraphController().getArcs().add(new Arc(begin, end));
                     }
                 }
@@ -577,32 +686,169 @@ public class AppMenu {
         currentGraphPane.getGraphController().makeComplete();
     };
 
-    // Finding of hamiltonian cycles
-    private EventHandler<ActionEvent> findHamiltonianCyclesEventHandler = e -> {
-        ObservableList<String> cycles = FXCollections.observableArrayList();
+    // Finding of an Eulerian circuit or trail
+    private EventHandler<ActionEvent> findEulerianTrailEventHandler = e -> {
+        if (graphTabPane.currentGraphPane() == null) {
+            return;
+        }
 
-        try {
-            for (Path cycle : graphTabPane.currentGraphPane().getGraphController().eulerianCycles()) {
-                cycles.add(cycle.toString());
+        EulerianTrail eulerianTrail = graphTabPane.currentGraphPane().getGraphController().eulerianTrail();
+
+        if (eulerianTrail.getKind() == EulerianTrail.Kind.NONE) {
+            String verdict = "Graph has no Eulerian circuit or trail";
+
+            if (eulerianTrail.isMixed()) {
+                verdict += ", it has both directed and undirected arcs";
+            } else if (!eulerianTrail.getUnbalancedNodes().isEmpty()) {
+                verdict += ", degrees of " + eulerianTrail.getUnbalancedNodes() + " don't allow it";
+            } else if (!eulerianTrail.getUnreachableNodes().isEmpty()) {
+                verdict += ", arcs of " + eulerianTrail.getUnreachableNodes() + " are out of reach";
             }
-        } catch (NullPointerException ex) {
+
+            Alert noTrailDialog = createEmptyDialog(new Label(verdict), "Eulerian cycles");
+            noTrailDialog.getButtonTypes().add(ButtonType.OK);
+            noTrailDialog.show();
+
+            return;
+        }
+
+        // One arc a row, a walk over many arcs doesn't fit a line; rows go the way the walk does
+        ListView<String> listView = new ListView<>();
+        List<Node> walkNodes = eulerianTrail.getPath().getPath();
+        for (int arcIter = 0; arcIter < eulerianTrail.getArcs().size(); arcIter++) {
+            listView.getItems().add(walkNodes.get(arcIter)
+                    + (eulerianTrail.getArcs().get(arcIter).isDirected() ? " -> " : " - ")
+                    + walkNodes.get(arcIter + 1));
+        }
+        listView.setPrefSize(MAIN_FORM_WIDTH / 3, MAIN_FORM_HEIGHT / 5);
+        listView.setEditable(false);
+
+        Alert eulerianTrailDialog = createEmptyDialog(listView,
+                eulerianTrail.getKind() == EulerianTrail.Kind.CIRCUIT ? "Eulerian circuit" : "Eulerian trail");
+        eulerianTrailDialog.getButtonTypes().add(ButtonType.OK);
+        eulerianTrailDialog.show();
+    };
+
+
+
+
+
+    // Planarity test and, for a non-planar graph, its Kuratowski witness, both aside from the FX thread
+    private EventHandler<ActionEvent> planarityEventHandler = e -> {
+        if (graphTabPane.currentGraphPane() == null) {
             return;
         }
 
+        PlanarityVerifier planarityVerifier = new PlanarityVerifier(graphTabPane.currentGraphPane().getGraphController().getGraph());
+
+        Thread planarityThread = new Thread(() -> {
+            String verdict = "Graph is planar";
+
+            try {
+                if (!planarityVerifier.verify()) {
+                    verdict = "Graph isn't planar, it has a subdivision of " + planarityVerifier.findKuratowskiGraph()
+                            + " on " + planarityVerifier.findKuratowskiArcs().size() + " arcs";
+                }
+            } catch (RuntimeException | Error ex) {
+                verdict = "Planarity wasn't checked: " + ex;
+            }
+
+            String shownVerdict = verdict;
+
+            Platform.runLater(() -> {
+                Alert planarityDialog = createEmptyDialog(new Label(shownVerdict), "Planarity");
+                planarityDialog.getButtonTypes().add(ButtonType.OK);
+                planarityDialog.show();
+            });
+        });
+
+        planarityThread.setDaemon(true);
+        planarityThread.start();
+    };
+
+    // Circuits are listed a page at a time and counted, both aside from the FX thread;
+    // closing the dialog stops both the listing and the count
+    private EventHandler<ActionEvent> allEulerianCircuitsEventHandler = e -> {
+        if (graphTabPane.currentGraphPane() == null) {
+            return;
+        }
+
+        EulerianCircuits eulerianCircuits = graphTabPane.currentGraphPane().getGraphController().eulerianCircuits();
+        Iterator<EulerianCircuit> circuits = eulerianCircuits.iterator();
+
         ListView<String> listView = new ListView<>();
-        listView.getItems().addAll(cycles);
         listView.setPrefSize(MAIN_FORM_WIDTH / 3, MAIN_FORM_HEIGHT / 5);
         listView.setEditable(false);
 
-        Alert hamiltonianCyclesDialog = createEmptyDialog(listView, "Eulerian cycles");
-        hamiltonianCyclesDialog.getButtonTypes().add(ButtonType.OK);
-        hamiltonianCyclesDialog.show();
+        Label countLabel = new Label("Counting circuits...");
+        Button nextPageButton = new Button("Next " + CIRCUITS_PAGE_SIZE);
+        nextPageButton.setOnAction(event -> listNextCircuits(circuits, listView, nextPageButton));
+
+        GridPane gridPane = new GridPane();
+        gridPane.add(listView, 0, 0, 2, 1);
+        gridPane.add(countLabel, 0, 1);
+        gridPane.add(nextPageButton, 1, 1);
+        GridPane.setMargin(countLabel, new Insets(CIRCLE_RADIUS));
+        GridPane.setMargin(nextPageButton, new Insets(CIRCLE_RADIUS));
+
+        Alert eulerianCircuitsDialog = createEmptyDialog(gridPane, "Eulerian circuits");
+        eulerianCircuitsDialog.getButtonTypes().add(ButtonType.OK);
+        eulerianCircuitsDialog.setOnHidden(event -> eulerianCircuits.cancel());
+        eulerianCircuitsDialog.show();
+        nextPageButton.fire();
+
+        Thread countingThread = new Thread(() -> {
+            BigInteger count;
+
+            try {
+                count = eulerianCircuits.count();
+            } catch (RuntimeException | Error ex) {
+                Platform.runLater(() -> countLabel.setText("Circuits weren't counted: " + ex));
+                return;
+            }
+
+            Platform.runLater(() -> {
+                if (eulerianCircuits.isMixed()) {
+                    countLabel.setText("Graph has both directed and undirected arcs");
+                } else if (count != null) {
+                    countLabel.setText("Circuits: " + count);
+                } else if (!eulerianCircuits.isCancelled()) {
+                    countLabel.setText("Graph is too large to count circuits");
+                }
+            });
+        });
+
+        countingThread.setDaemon(true);
+        countingThread.start();
     };
 
+    // The button stays off while the page is searched, so one thread at a time goes on with the circuits
+    private void listNextCircuits(Iterator<EulerianCircuit> circuits, ListView<String> listView, Button nextPageButton) {
+        nextPageButton.setDisable(true);
 
+        Thread listingThread = new Thread(() -> {
+            List<String> page = new ArrayList<>();
+            boolean hasNext;
 
+            try {
+                while (page.size() < CIRCUITS_PAGE_SIZE && circuits.hasNext()) {
+                    page.add(circuits.next().toString());
+                }
+                hasNext = circuits.hasNext();
+            } catch (RuntimeException | Error ex) {
+                Platform.runLater(() -> listView.getItems().add("Circuits weren't listed: " + ex));
+                return;
+            }
 
+            Platform.runLater(() -> {
+                listView.getItems().addAll(page);
+                nextPageButton.setDisable(!hasNext);
+            });
+        });
 
+        listingThread.setDaemon(true);
+        listingThread.start();
+    }
 
     private EventHandler<ActionEvent> pathBetweenNodesEventHandler = e -> {
         ComboBox<String> firstNodeName = new ComboBox<>();
@@ -690,29 +936,84 @@ public class AppMenu {
 
 
 
-    // Coloring the graph nodes
-    private EventHandler<ActionEvent> coloringNodesEventHandler = e -> {
-        Map<Node, String> stringColors = graphTabPane.currentGraphPane().getGraphController().colorizeNodes();
-        Map<String, Color> colors = new HashMap<>();
+    // Coloring the graph nodes by the given strategy
+    private EventHandler<ActionEvent> coloringEventHandler(Colorer.Strategy strategy) {
+        return e -> {
+            Coloring coloring;
+
+            try {
+                coloring = graphTabPane.currentGraphPane().getGraphController().colorizeNodes(strategy);
+            } catch (NullPointerException ex) {
+                return;
+            }
 
-        Random random = new Random(System.currentTimeMillis());
+            paintNodes(graphTabPane.currentGraphPane(), coloring);
 
-        for (String stringColor : stringColors.values()) {
-            colors.put(
-                    stringColor,
-                    Color.color(random.nextDouble(),
-                            random.nextDouble(),
-                            random.nextDouble())
-            );
-        }
+            Alert colorsDialog = createEmptyDialog(new Label("Colors used: " + coloring.colorsCount()), "Coloring");
+            colorsDialog.getButtonTypes().add(ButtonType.OK);
+            colorsDialog.show();
+        };
+    }
 
-        List<DrawableNode> drawableNodes = graphTabPane.currentGraphPane().getDrawableNodes();
+    // Exact coloring, searched aside from the FX thread for no longer than the time limit
+    private EventHandler<ActionEvent> chromaticNumberEventHandler = e -> {
+        GraphPane graphPane = graphTabPane.currentGraphPane();
 
-        for (DrawableNode drawableNode : drawableNodes) {
-            drawableNode.getShape().setFill(colors.get(stringColors.get(drawableNode.getSourceNode())));
+        if (graphPane == null) {
+            return;
         }
+
+        GraphSnapshot snapshot = graphPane.getGraphController().getGraph().snapshot();
+
+        Thread coloringThread = new Thread(() -> {
+            ExactColorer exactColorer;
+            Coloring coloring;
+
+            try {
+                exactColorer = new ExactColorer(snapshot);
+                coloring = exactColorer.colorize();
+            } catch (RuntimeException | Error ex) {
+                Platform.runLater(() -> showChromaticNumber("Chromatic number wasn't found: " + ex));
+                return;
+            }
+
+            Platform.runLater(() -> {
+                paintNodes(graphPane, coloring);
+
+                String verdict = exactColorer.isOptimal()
+                        ? "Chromatic number: " + coloring.colorsCount()
+                        : "Chromatic number is from " + exactColorer.getLowerBound() + " to " + coloring.colorsCount();
+
+                if (!exactColorer.isSearchable()) {
+                    verdict += ", the graph has more than " + ExactColorer.MAX_NODES + " nodes to search";
+                } else if (!exactColorer.isOptimal()) {
+                    verdict += ", the search took longer than " + exactColorer.getTimeLimit() / 1000 + " s";
+                }
+
+                showChromaticNumber(verdict);
+            });
+        });
+
+        coloringThread.setDaemon(true);
+        coloringThread.start();
     };
 
+    private void showChromaticNumber(String verdict) {
+        Alert chromaticNumberDialog = createEmptyDialog(new Label(verdict), "Chromatic number");
+        chromaticNumberDialog.getButtonTypes().add(ButtonType.OK);
+        chromaticNumberDialog.show();
+    }
+
+    private void paintNodes(GraphPane graphPane, Coloring coloring) {
+        for (DrawableNode drawableNode : graphPane.getDrawableNodes()) {
+            int color = coloring.colorOf(drawableNode.getSourceNode());
+
+            if (color != Coloring.NO_COLOR) {
+                drawableNode.getShape().setFill(DrawableNode.paletteColor(color));
+            }
+        }
+    }
+
     // Distance between two specified nodes
     private EventHandler<ActionEvent> distanceBetweenNodesEventHandler = e -> {
         ComboBox<String> firstNodeName = new ComboBox<>();
@@ -752,22 +1053,18 @@ public class AppMenu {
                 }
             }
 
-            Integer distance = graphTabPane.currentGraphPane().getGraphController()
-                    .getDistanceMatrix().getDistancesMap()
-                    .get(begin).get(end);
+            int distance = graphTabPane.currentGraphPane().getGraphController()
+                    .getDistanceOracle().distance(begin, end);
 
             Label distanceText = new Label();
             Alert distanceAsItIs = createEmptyDialog(distanceText, "Distance");
             distanceAsItIs.getButtonTypes().add(ButtonType.OK);
 
 
-            if (distance == DistanceMatrix.INFINITY) {
+            if (distance == DistanceOracle.INFINITY) {
                 distanceText.setText("Node way from " + begin + " to " + end + "not found");
             } else {
-                distanceText.setText("Distance between " + begin + " and " + end + " is " +
-                        graphTabPane.currentGraphPane().getGraphController()
-                                .getDistanceMatrix().getDistancesMap()
-                                .get(begin).get(end));
+                distanceText.setText("Distance between " + begin + " and " + end + " is " + distance);
             }
 
             distanceAsItIs.show();
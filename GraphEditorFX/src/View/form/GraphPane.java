@@ -1,6 +1,8 @@
 package View.form;
 
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.MapChangeListener;
 import javafx.collections.ObservableList;
 import javafx.event.EventHandler;
 import javafx.geometry.Insets;
@@ -11,15 +13,21 @@ import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.Pane;
+import javafx.scene.paint.Paint;
 import javafx.scene.shape.Rectangle;
 import View.DrawableArc;
 import View.DrawableNode;
 import model.Arc;
 import model.Node;
+import controller.Coloring;
 import controller.GraphController;
+import controller.LiveColorer;
+import controller.dir.TreeVerifier;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static View.DrawableNode.CIRCLE_RADIUS;
 import static sample.Main.MAIN_FORM_HEIGHT;
@@ -41,6 +49,11 @@ public class GraphPane {
 
     private ObservableList<DrawableNode> drawableNodes;
     private ObservableList<DrawableArc> drawableArcs;
+    private Map<Node, DrawableNode> drawableNodesBySource;
+    private Map<Node, Paint> fillsBeforeLiveColoring;
+
+    private boolean isLiveColoring;
+    private MapChangeListener<Node, Integer> liveColoringListener;
 
     private Pane pane;
 
@@ -55,6 +68,7 @@ public class GraphPane {
 
         drawableNodes = FXCollections.observableArrayList();
         drawableArcs = FXCollections.observableArrayList();
+        configureLiveColoring();
 
         pane = new Pane();
 
@@ -72,7 +86,7 @@ public class GraphPane {
 
         drawableNodes = FXCollections.observableArrayList();
         drawableArcs = FXCollections.observableArrayList();
-
+        configureLiveColoring();
 
         pane = new Pane();
 
@@ -107,10 +121,89 @@ public class GraphPane {
         return drawableArcs;
     }
 
+    public boolean isLiveColoring() {
+        return isLiveColoring;
+    }
+
+    // Nodes are painted by the live coloring of the graph, then repainted one by one as their colors
+    // change; turning it off gives them back the fills they had before
+    public void setLiveColoring(boolean isLiveColoring) {
+        if (graphController == null || this.isLiveColoring == isLiveColoring) {
+            return;
+        }
+
+        LiveColorer liveColorer = graphController.getLiveColorer();
+        this.isLiveColoring = isLiveColoring;
+
+        if (isLiveColoring) {
+            liveColorer.getColors().addListener(liveColoringListener);
+
+            for (DrawableNode drawableNode : drawableNodes) {
+                paintLive(drawableNode);
+            }
+        } else {
+            liveColorer.getColors().removeListener(liveColoringListener);
+
+            for (DrawableNode drawableNode : drawableNodes) {
+                Paint fill = fillsBeforeLiveColoring.get(drawableNode.getSourceNode());
+
+                if (fill != null) {
+                    drawableNode.getShape().setFill(fill);
+                }
+            }
+
+            fillsBeforeLiveColoring.clear();
+        }
+    }
+
     /*
         Configs
      */
 
+    // Drawable nodes are indexed by their nodes, so that a color change finds its node at once
+    private void configureLiveColoring() {
+        drawableNodesBySource = new HashMap<>();
+        fillsBeforeLiveColoring = new HashMap<>();
+
+        drawableNodes.addListener((ListChangeListener<DrawableNode>) change -> {
+            while (change.next()) {
+                for (DrawableNode drawableNode : change.getRemoved()) {
+                    drawableNodesBySource.remove(drawableNode.getSourceNode());
+                    fillsBeforeLiveColoring.remove(drawableNode.getSourceNode());
+                }
+
+                for (DrawableNode drawableNode : change.getAddedSubList()) {
+                    drawableNodesBySource.put(drawableNode.getSourceNode(), drawableNode);
+
+                    if (isLiveColoring) {
+                        paintLive(drawableNode);
+                    }
+                }
+            }
+        });
+
+        liveColoringListener = change -> {
+            DrawableNode drawableNode = drawableNodesBySource.get(change.getKey());
+
+            if (change.wasAdded() && drawableNode != null) {
+                paintLive(drawableNode, change.getValueAdded());
+            }
+        };
+    }
+
+    private void paintLive(DrawableNode drawableNode) {
+        int color = graphController.getLiveColorer().colorOf(drawableNode.getSourceNode());
+
+        if (color != Coloring.NO_COLOR) {
+            paintLive(drawableNode, color);
+        }
+    }
+
+    private void paintLive(DrawableNode drawableNode, int color) {
+        fillsBeforeLiveColoring.putIfAbsent(drawableNode.getSourceNode(), drawableNode.getShape().getFill());
+        drawableNode.getShape().setFill(DrawableNode.paletteColor(color));
+    }
+
     // Group configs: event handling, background fill
     private void configurePane() {
         pane.setPrefSize(MAIN_FORM_WIDTH, 4 * MAIN_FORM_HEIGHT / 5);
@@ -131,7 +224,6 @@ public class GraphPane {
         pane.addEventHandler(KeyEvent.KEY_PRESSED, nodeRenamingEventHandler);
         pane.addEventHandler(KeyEvent.KEY_PRESSED, getNodeDegreeEventHandler);
         pane.addEventHandler(KeyEvent.KEY_PRESSED, arcDirectionSwapEventHandler);
-       // pane.addEventHandler(KeyEvent.KEY_PRESSED, isPlanarEventHandler);
     }
 
     /*
@@ -265,8 +357,8 @@ public class GraphPane {
                 Arc arc = new Arc(beginForArc.getSourceNode(), endForArc.getSourceNode());
                 Arc inverseArc = new Arc(endForArc.getSourceNode(), beginForArc.getSourceNode());
 //////////////////////////////////////////КРАТНЫЕ ДУГИ//////////////////////////////////////////////////
-                if ((graphController.getArcs().contains(arc))
-                        || (graphController.getArcs().contains(inverseArc))) {
+                if ((graphController.getGraph().containsArc(arc.getBegin(), arc.getEnd()))
+                        || (graphController.getGraph().containsArc(inverseArc.getBegin(), inverseArc.getEnd()))) {
                     graphController.addArc(arc);
 
                     if (arc.getBegin().equals(arc.getEnd())) {
@@ -354,7 +446,7 @@ public class GraphPane {
                 }
 
                 graphController.removeArc(drawableArc.getSourceArc());
-                drawableArcs.remove(drawableArc);
+                drawableArcs.removeIf(someDrawableArc -> someDrawableArc == drawableArc);
                 pane.getChildren().removeAll(drawableArc.getLine(), drawableArc.getArrow(), drawableArc.getLoop(), drawableArc.getCurve());
                 return;
             }
@@ -453,21 +545,21 @@ public class GraphPane {
         }
     };
 
-    // Check for graph planarity
-    private EventHandler<KeyEvent> isPlanarEventHandler = e -> {
-        Alert planarity = createEmptyDialog(
-                new Label("Graph is" + (graphController.isPlanar() ? " " : "n't ") + "planar"),
-                "Planarity"
-        );
-        planarity.getButtonTypes().add(ButtonType.OK);
-
-        planarity.show();
-    };
-
     // Check is graph a tree
     private EventHandler<KeyEvent> isTreeEventHandler = e -> {
+        TreeVerifier treeVerifier = graphController.verifyTree();
+        String verdict = "Graph is a tree";
+
+        if (!treeVerifier.getCycle().isEmpty()) {
+            verdict = "Graph isn't a tree, it has the cycle " + treeVerifier.getCycle();
+        } else if (!treeVerifier.getUnreachableNodes().isEmpty()) {
+            verdict = "Graph isn't a tree, it doesn't connect " + treeVerifier.getUnreachableNodes();
+        } else if (graphController.getNodes().isEmpty()) {
+            verdict = "Graph isn't a tree";
+        }
+
         Alert isTree = createEmptyDialog(
-                new Label("Graph is" + (graphController.isTree() ? " " : "n't ") + "a tree"),
+                new Label(verdict),
                 "Is tree"
         );
         isTree.getButtonTypes().add(ButtonType.OK);
@@ -1,10 +1,12 @@
 package View.form;
 
 import controller.GraphController;
+import javafx.application.Platform;
 import javafx.collections.ListChangeListener;
 import javafx.scene.control.Label;
 import javafx.scene.control.Separator;
 import javafx.scene.control.ToolBar;
+import model.GraphSnapshot;
 
 
 public class GraphStatusBar {
@@ -13,7 +15,14 @@ public class GraphStatusBar {
     private static final String DIAMETER = "Diameter: ";
     private static final String RADIUS = "Radius: ";
 
+    // Nodes times nodes and arcs: the work of one breadth-first search from every node
+    public static final long DEFAULT_APPROXIMATION_THRESHOLD = 100_000_000L;
+
     private GraphController graphController;
+    private long approximationThreshold;
+
+    // The exact metrics being calculated aside from the FX thread, if any
+    private Thread metricsThread;
 
     private ToolBar statusBar;
     private Label nodesCount;
@@ -21,10 +30,12 @@ public class GraphStatusBar {
     private Label diameter;
     private Label radius;
     private Label isConnective;
+    private Label isStronglyConnective;
 
 
     public GraphStatusBar() {
         this.graphController = null;
+        this.approximationThreshold = DEFAULT_APPROXIMATION_THRESHOLD;
 
         statusBar = new ToolBar();
         statusBar.setStyle("-fx-background-color: #c0cedb");
@@ -35,6 +46,20 @@ public class GraphStatusBar {
         return statusBar;
     }
 
+    public long getApproximationThreshold() {
+        return approximationThreshold;
+    }
+
+    // Graphs whose exact metrics may take more work than that show the bounds of their diameter and radius
+    // until the exact values are calculated in the background
+    public void setApproximationThreshold(long approximationThreshold) {
+        this.approximationThreshold = approximationThreshold;
+
+        if (graphController != null) {
+            updateMetrics();
+        }
+    }
+
     public void updateSource(GraphController graphController) {
         removeListeners();
         this.graphController = graphController;
@@ -52,13 +77,20 @@ public class GraphStatusBar {
         diameter = new Label(DIAMETER + 0);
         radius = new Label(RADIUS + 0);
         isConnective = new Label("Graph isn't connective");
+        isStronglyConnective = new Label("Graph isn't strongly connective");
 
         statusBar.getItems().addAll(
                 nodesCount,
                 new Separator(),
                 arcsCount,
                 new Separator(),
-                isConnective
+                diameter,
+                new Separator(),
+                radius,
+                new Separator(),
+                isConnective,
+                new Separator(),
+                isStronglyConnective
         );
     }
 
@@ -66,8 +98,8 @@ public class GraphStatusBar {
         try {
             graphController.getNodes().removeListener(nodesCountListener);
             graphController.getArcs().removeListener(arcsCountListener);
-            graphController.getArcs().removeListener(diameterListener);
-            graphController.getArcs().removeListener(radiusListener);
+            graphController.getArcs().removeListener(metricsListener);
+            graphController.getNodes().removeListener(metricsListener);
 
             graphController.getArcs().removeListener(isCompleteListener);
             graphController.getNodes().removeListener(isCompleteListener);
@@ -79,8 +111,8 @@ public class GraphStatusBar {
     private void addListeners() {
         graphController.getNodes().addListener(nodesCountListener);
         graphController.getArcs().addListener(arcsCountListener);
-        graphController.getArcs().addListener(diameterListener);
-        graphController.getArcs().addListener(radiusListener);
+        graphController.getArcs().addListener(metricsListener);
+        graphController.getNodes().addListener(metricsListener);
 
         graphController.getArcs().addListener(isCompleteListener);
         graphController.getNodes().addListener(isCompleteListener);
@@ -89,9 +121,66 @@ public class GraphStatusBar {
     private void updateLabels() {
         nodesCount.setText(NODES_COUNT + String.valueOf(graphController.getNodes().size()));
         arcsCount.setText(ARCS_COUNT + String.valueOf(graphController.getArcs().size()));
+        updateMetrics();
+        updateConnectivity();
+    }
+
+    // Both come from the same calculation, made once per change
+    private void updateMetrics() {
+        long nodesCount = graphController.getNodes().size();
+        long work = nodesCount * (nodesCount + graphController.getArcs().size());
+
+        if (work <= approximationThreshold) {
+            showExactMetrics();
+            return;
+        }
+
+        diameter.setText(DIAMETER + graphController.diameterEstimate());
+        radius.setText(RADIUS + graphController.radiusEstimate());
+
+        if (metricsThread == null) {
+            calculateMetrics();
+        }
+    }
+
+    private void showExactMetrics() {
         diameter.setText(DIAMETER + String.valueOf(graphController.diameter()));
         radius.setText(RADIUS + String.valueOf(graphController.radius()));
+    }
+
+    // One calculation at a time: changes made meanwhile are caught up with when it ends,
+    // and results of a graph that has changed or been switched away from aren't shown.
+    // If it fails, the bounds stay until the next change
+    private void calculateMetrics() {
+        GraphController source = graphController;
+        GraphSnapshot snapshot = source.getGraph().snapshot();
+
+        metricsThread = new Thread(() -> {
+            try {
+                source.getMetrics().calculateExtremes(snapshot);
+            } catch (RuntimeException | Error ex) {
+                Platform.runLater(() -> metricsThread = null);
+                return;
+            }
+
+            Platform.runLater(() -> {
+                metricsThread = null;
+
+                if (graphController == source && source.getGraph().getVersion() == snapshot.getVersion()) {
+                    showExactMetrics();
+                } else {
+                    updateMetrics();
+                }
+            });
+        });
+
+        metricsThread.setDaemon(true);
+        metricsThread.start();
+    }
+
+    private void updateConnectivity() {
         isConnective.setText("Graph is" + (graphController.isConnective() ? " " : "n't ") + "connective");
+        isStronglyConnective.setText("Graph is" + (graphController.isStronglyConnective() ? " " : "n't ") + "strongly connective");
     }
 
     /*
@@ -106,15 +195,7 @@ public class GraphStatusBar {
         arcsCount.setText(ARCS_COUNT + String.valueOf(graphController.getArcs().size()));
     };
 
-    private ListChangeListener diameterListener = change -> {
-        diameter.setText(DIAMETER + String.valueOf(graphController.diameter()));
-    };
-
-    private ListChangeListener radiusListener = change -> {
-        radius.setText(RADIUS + String.valueOf(graphController.radius()));
-    };
+    private ListChangeListener metricsListener = change -> updateMetrics();
 
-    private ListChangeListener isCompleteListener = change -> {
-        isConnective.setText("Graph is" + (graphController.isConnective() ? " " : "n't ") + "connective");
-    };
+    private ListChangeListener isCompleteListener = change -> updateConnectivity();
 }
@@ -1,74 +1,401 @@
 package controller;
 
-import model.*;
+import model.Graph;
+import model.GraphSnapshot;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
 
+import static controller.Coloring.NO_COLOR;
 
+
+// Greedy coloring of the graph with arc directions, loops and repeated arcs ignored.
+// Colors taken by neighbours are kept as bits of long words, 64 colors a word:
+// DSATUR keeps such a set per node, Welsh–Powell reuses one set for every node.
+// Jones–Plassmann colors in parallel rounds by random priorities drawn from the seed
 public class Colorer {
-    private static final int NO_COLOR = -1;
+    public enum Strategy { DSATUR, WELSH_POWELL, JONES_PLASSMANN }
+
+    public static final long DEFAULT_SEED = 1;
 
-    private Graph graph;
-    private AList adjacencyList;
+    private static final int NONE = -1;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
 
-    private Map<Node, String> nodesColors;
+    private GraphSnapshot snapshot;
+    private long seed;
+
+    // Simple undirected adjacency: neighbours of v at [adjacencyOffsets[v], adjacencyOffsets[v + 1])
+    private int[] adjacencyOffsets;
+    private int[] adjacentNodes;
 
 
     public Colorer(Graph graph) {
-        this.graph = graph.undirectedEquivalent();
-        this.adjacencyList = new AList(this.graph);
+        this(graph.snapshot());
+    }
+
+    Colorer(GraphSnapshot snapshot) {
+        this.snapshot = snapshot;
+        seed = DEFAULT_SEED;
+
+        configureAdjacency();
+    }
+
+    public GraphSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Priorities of Jones–Plassmann, and so its coloring, are the same for the same seed
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public Coloring colorize(Strategy strategy) {
+        int[] colors;
+
+        switch (strategy) {
+            case DSATUR:
+                colors = colorizeBySaturation();
+                break;
+            case WELSH_POWELL:
+                colors = colorizeByDegree();
+                break;
+            default:
+                colors = colorizeInParallel();
+                break;
+        }
+
+        int colorsCount = 0;
+
+        for (int color : colors) {
+            colorsCount = Math.max(colorsCount, color + 1);
+        }
+
+        return new Coloring(snapshot, colors, colorsCount);
+    }
+
+    /*
+     *      Configs
+     */
+
+    private void configureAdjacency() {
+        int nodesCount = snapshot.nodesCount();
+        int[] lastSources = new int[nodesCount];
+        int[] neighbours = new int[2 * snapshot.arcsCount()];
+        int neighboursCount = 0;
+
+        adjacencyOffsets = new int[nodesCount + 1];
+        Arrays.fill(lastSources, NONE);
+
+        for (int node = 0; node < nodesCount; node++) {
+            lastSources[node] = node;
+
+            for (int arcIter = snapshot.outBegin(node); arcIter < snapshot.outEnd(node); arcIter++) {
+                int adjacent = snapshot.outTarget(arcIter);
+
+                if (lastSources[adjacent] != node) {
+                    lastSources[adjacent] = node;
+                    neighbours[neighboursCount++] = adjacent;
+                }
+            }
+
+            for (int arcIter = snapshot.inBegin(node); arcIter < snapshot.inEnd(node); arcIter++) {
+                int adjacent = snapshot.inSource(arcIter);
+
+                if (lastSources[adjacent] != node) {
+                    lastSources[adjacent] = node;
+                    neighbours[neighboursCount++] = adjacent;
+                }
+            }
+
+            adjacencyOffsets[node + 1] = neighboursCount;
+        }
 
-        nodesColors = new HashMap<>();
+        adjacentNodes = Arrays.copyOf(neighbours, neighboursCount);
     }
 
-    public Map<Node, String> colorizeNodes() {
-        boolean isFirstNodeColored = false;
-        int color = 0;
+    /*
+     *      Strategies
+     */
+
+    // DSATUR: the next node is the one with the most distinct colors among its neighbours, the
+    // first one is of the largest degree. Nodes wait in buckets by saturation, doubly linked
+    // lists, so a pick and a move from one bucket to the next are O(1) and the whole is O(V + E)
+    private int[] colorizeBySaturation() {
+        int nodesCount = snapshot.nodesCount();
+        int[] colors = new int[nodesCount];
+        int[] saturations = new int[nodesCount];
+        int[] bucketHeads = new int[nodesCount + 1];
+        int[] nexts = new int[nodesCount];
+        int[] previouses = new int[nodesCount];
+
+        int words = 1;
+        long[] neighbourColors = new long[nodesCount];
+
+        Arrays.fill(colors, NO_COLOR);
+        Arrays.fill(bucketHeads, NONE);
+
+        // Pushed in the ascending order of degrees, nodes of larger degrees come out first
+        for (int node : nodesByDegree(false)) {
+            link(node, 0, bucketHeads, nexts, previouses);
+        }
+
+        int maxSaturation = 0;
+
+        for (int coloredCount = 0; coloredCount < nodesCount; coloredCount++) {
+            while (bucketHeads[maxSaturation] == NONE) {
+                maxSaturation--;
+            }
 
-        for (Node node : adjacencyList.getAdjacencyLists().keySet()) {
-            if (!isFirstNodeColored) {
-                nodesColors.put(node, String.valueOf(color));
-                isFirstNodeColored = true;
-                color++;
+            int node = bucketHeads[maxSaturation];
+            int color = firstClearBit(neighbourColors, node * words, words);
 
-                continue;
+            unlink(node, maxSaturation, bucketHeads, nexts, previouses);
+            colors[node] = color;
+
+            if (color >= 64 * words) {
+                neighbourColors = widen(neighbourColors, nodesCount, words, 2 * words);
+                words *= 2;
             }
 
-            nodesColors.put(node, String.valueOf(color));
-            color++;
+            long bit = 1L << color;
+
+            for (int adjacentIter = adjacencyOffsets[node]; adjacentIter < adjacencyOffsets[node + 1]; adjacentIter++) {
+                int adjacent = adjacentNodes[adjacentIter];
+                int word = adjacent * words + color / 64;
+
+                if (colors[adjacent] != NO_COLOR || (neighbourColors[word] & bit) != 0) {
+                    continue;
+                }
+
+                neighbourColors[word] |= bit;
+                unlink(adjacent, saturations[adjacent], bucketHeads, nexts, previouses);
+                link(adjacent, ++saturations[adjacent], bucketHeads, nexts, previouses);
+                maxSaturation = Math.max(maxSaturation, saturations[adjacent]);
+            }
         }
 
-        Map<String, Boolean> availableColors = new HashMap<>();
+        return colors;
+    }
+
+    // Welsh–Powell: nodes by descending degree, each one gets the least color its neighbours don't
+    // have. That is the same coloring as sweeping the list once per color, but in O(V + E)
+    private int[] colorizeByDegree() {
+        int nodesCount = snapshot.nodesCount();
+        int[] colors = new int[nodesCount];
+        long[] forbiddenColors = new long[1];
+        int colorsCount = 0;
+
+        Arrays.fill(colors, NO_COLOR);
+
+        for (int node : nodesByDegree(true)) {
+            if (colorsCount >= 64 * forbiddenColors.length) {
+                forbiddenColors = Arrays.copyOf(forbiddenColors, 2 * forbiddenColors.length);
+            }
+
+            for (int adjacentIter = adjacencyOffsets[node]; adjacentIter < adjacencyOffsets[node + 1]; adjacentIter++) {
+                int color = colors[adjacentNodes[adjacentIter]];
 
-        for (String currentColor : nodesColors.values()) {
-            availableColors.put(currentColor, true);
+                if (color != NO_COLOR) {
+                    forbiddenColors[color / 64] |= 1L << color;
+                }
+            }
+
+            colors[node] = firstClearBit(forbiddenColors, 0, forbiddenColors.length);
+            colorsCount = Math.max(colorsCount, colors[node] + 1);
+
+            // Only the words the neighbours touched are cleared for the next node
+            for (int adjacentIter = adjacencyOffsets[node]; adjacentIter < adjacencyOffsets[node + 1]; adjacentIter++) {
+                int color = colors[adjacentNodes[adjacentIter]];
+
+                if (color != NO_COLOR) {
+                    forbiddenColors[color / 64] = 0;
+                }
+            }
         }
 
-        for (Node node : adjacencyList.getAdjacencyLists().keySet()) {
-            if (!nodesColors.get(node).equals(String.valueOf(NO_COLOR))) {
-                for (Node someAdjacentNode : adjacencyList.getAdjacencyLists().get(node)) {
-                    if (!nodesColors.get(someAdjacentNode).equals(String.valueOf(NO_COLOR)))
-                        availableColors.replace(nodesColors.get(someAdjacentNode), false);
+        return colors;
+    }
+
+    // Jones–Plassmann: a node is colored as soon as all its neighbours of higher priority are,
+    // with the least color they don't have. Every round colors such nodes across the common
+    // fork-join pool; they are never adjacent, and the color of a node depends on the priorities
+    // alone, so the coloring is the same whatever the threads do
+    private int[] colorizeInParallel() {
+        int nodesCount = snapshot.nodesCount();
+        int[] colors = new int[nodesCount];
+        long[] priorities = new long[nodesCount];
+        AtomicIntegerArray waitingsCounts = new AtomicIntegerArray(nodesCount);
+
+        Arrays.fill(colors, NO_COLOR);
+        IntStream.range(0, nodesCount).parallel().forEach(node -> priorities[node] = mix(seed + node * GOLDEN_GAMMA));
+        IntStream.range(0, nodesCount).parallel().forEach(node -> {
+            int higherCount = 0;
+
+            for (int adjacentIter = adjacencyOffsets[node]; adjacentIter < adjacencyOffsets[node + 1]; adjacentIter++) {
+                if (isPrior(adjacentNodes[adjacentIter], node, priorities)) {
+                    higherCount++;
                 }
+            }
+
+            waitingsCounts.set(node, higherCount);
+        });
+
+        int[] round = IntStream.range(0, nodesCount).parallel().filter(node -> waitingsCounts.get(node) == 0).toArray();
+        int[] nextRound = new int[nodesCount];
+        AtomicInteger nextRoundSize = new AtomicInteger();
+
+        while (round.length != 0) {
+            int[] roundNodes = round;
 
-                String currentColor = String.valueOf(0);
-                for (String someColor : availableColors.keySet()){
-                    if (availableColors.get(someColor)) {
-                        currentColor = someColor;
-                        break;
+            IntStream.range(0, roundNodes.length).parallel().forEach(nodeIter ->
+                    colors[roundNodes[nodeIter]] = leastColorOfPriors(roundNodes[nodeIter], colors, priorities)
+            );
+
+            nextRoundSize.set(0);
+            IntStream.range(0, roundNodes.length).parallel().forEach(nodeIter -> {
+                int node = roundNodes[nodeIter];
+
+                for (int adjacentIter = adjacencyOffsets[node]; adjacentIter < adjacencyOffsets[node + 1]; adjacentIter++) {
+                    int adjacent = adjacentNodes[adjacentIter];
+
+                    if (isPrior(node, adjacent, priorities) && waitingsCounts.decrementAndGet(adjacent) == 0) {
+                        nextRound[nextRoundSize.getAndIncrement()] = adjacent;
                     }
                 }
+            });
+
+            round = Arrays.copyOf(nextRound, nextRoundSize.get());
+        }
+
+        return colors;
+    }
+
+    // Neighbours of higher priority are colored already; one word does for the most of nodes
+    private int leastColorOfPriors(int node, int[] colors, long[] priorities) {
+        int degree = degreeOf(node);
 
-                nodesColors.replace(node, currentColor);
+        if (degree < 64) {
+            long takenColors = 0;
 
-                availableColors.clear();
+            for (int adjacentIter = adjacencyOffsets[node]; adjacentIter < adjacencyOffsets[node + 1]; adjacentIter++) {
+                int adjacent = adjacentNodes[adjacentIter];
 
-                for (String someColor : nodesColors.values()) {
-                    availableColors.put(someColor, true);
+                if (isPrior(adjacent, node, priorities) && colors[adjacent] < 64) {
+                    takenColors |= 1L << colors[adjacent];
                 }
             }
+
+            return Long.numberOfTrailingZeros(~takenColors);
+        }
+
+        long[] takenColors = new long[degree / 64 + 1];
+
+        for (int adjacentIter = adjacencyOffsets[node]; adjacentIter < adjacencyOffsets[node + 1]; adjacentIter++) {
+            int adjacent = adjacentNodes[adjacentIter];
+
+            if (isPrior(adjacent, node, priorities) && colors[adjacent] <= degree) {
+                takenColors[colors[adjacent] / 64] |= 1L << colors[adjacent];
+            }
+        }
+
+        return firstClearBit(takenColors, 0, takenColors.length);
+    }
+
+    /*
+     *      Utility
+     */
+
+    // Ties of priorities are broken by indices
+    private static boolean isPrior(int first, int second, long[] priorities) {
+        return priorities[first] > priorities[second] || (priorities[first] == priorities[second] && first > second);
+    }
+
+    // The finalizer of SplitMix64
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+
+        return value ^ (value >>> 31);
+    }
+
+    // Counting sort of nodes by degree
+    private int[] nodesByDegree(boolean isDescending) {
+        int nodesCount = snapshot.nodesCount();
+        int[] degreeOffsets = new int[nodesCount + 1];
+        int[] nodes = new int[nodesCount];
+
+        for (int node = 0; node < nodesCount; node++) {
+            degreeOffsets[degreeOf(node)]++;
+        }
+
+        for (int degree = 0, offset = 0; degree <= nodesCount; degree++) {
+            int count = degreeOffsets[degree];
+
+            degreeOffsets[degree] = offset;
+            offset += count;
+        }
+
+        for (int node = 0; node < nodesCount; node++) {
+            int position = degreeOffsets[degreeOf(node)]++;
+
+            nodes[isDescending ? nodesCount - 1 - position : position] = node;
+        }
+
+        return nodes;
+    }
+
+    private int degreeOf(int node) {
+        return adjacencyOffsets[node + 1] - adjacencyOffsets[node];
+    }
+
+    private static int firstClearBit(long[] bits, int begin, int words) {
+        for (int word = 0; word < words; word++) {
+            long clearBits = ~bits[begin + word];
+
+            if (clearBits != 0) {
+                return 64 * word + Long.numberOfTrailingZeros(clearBits);
+            }
         }
 
-        return nodesColors;
+        return 64 * words;
+    }
+
+    private static long[] widen(long[] bits, int setsCount, int words, int newWords) {
+        long[] widened = new long[setsCount * newWords];
+
+        for (int set = 0; set < setsCount; set++) {
+            System.arraycopy(bits, set * words, widened, set * newWords, words);
+        }
+
+        return widened;
+    }
+
+    private static void link(int node, int bucket, int[] bucketHeads, int[] nexts, int[] previouses) {
+        nexts[node] = bucketHeads[bucket];
+        previouses[node] = NONE;
+
+        if (bucketHeads[bucket] != NONE) {
+            previouses[bucketHeads[bucket]] = node;
+        }
+
+        bucketHeads[bucket] = node;
+    }
+
+    private static void unlink(int node, int bucket, int[] bucketHeads, int[] nexts, int[] previouses) {
+        if (previouses[node] == NONE) {
+            bucketHeads[bucket] = nexts[node];
+        } else {
+            nexts[previouses[node]] = nexts[node];
+        }
+
+        if (nexts[node] != NONE) {
+            previouses[nexts[node]] = previouses[node];
+        }
     }
 }
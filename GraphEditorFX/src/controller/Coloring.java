@@ -0,0 +1,40 @@
+package controller;
+
+import model.GraphSnapshot;
+import model.Node;
+
+
+// Colors of nodes by their indices in the snapshot they were found for, numbered from 0
+public class Coloring {
+    public static final int NO_COLOR = -1;
+
+    private GraphSnapshot snapshot;
+    private int[] colors;
+    private int colorsCount;
+
+
+    public Coloring(GraphSnapshot snapshot, int[] colors, int colorsCount) {
+        this.snapshot = snapshot;
+        this.colors = colors;
+        this.colorsCount = colorsCount;
+    }
+
+    public GraphSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public int[] getColors() {
+        return colors;
+    }
+
+    public int colorsCount() {
+        return colorsCount;
+    }
+
+    // Node out of the snapshot has no color
+    public int colorOf(Node node) {
+        int index = snapshot.indexOf(node);
+
+        return index == -1 ? NO_COLOR : colors[index];
+    }
+}
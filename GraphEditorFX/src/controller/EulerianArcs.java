@@ -0,0 +1,249 @@
+package controller;
+
+import model.Arc;
+import model.GraphSnapshot;
+
+
+// Arcs of a snapshot as the edges an Eulerian walk goes along. Directed arcs are edges of their
+// own; an undirected edge is kept in the graph as two opposite arcs, a loop as two loops, so
+// those are paired up into one edge each, in O(V + E). Graphs with both kinds aren't paired
+class EulerianArcs {
+    private GraphSnapshot snapshot;
+    private int nodesCount;
+    private boolean isDirected;
+    private boolean isMixed;
+
+    private int edgesCount;
+    private int[] begins;
+    private int[] ends;
+    private Arc[] arcs;
+
+    // Edges of v at [incidenceOffsets[v], incidenceOffsets[v + 1]): outgoing ones when directed,
+    // all ones otherwise, a loop twice
+    private int[] incidenceOffsets;
+    private int[] incidentEdges;
+    private int[] inDegrees;
+
+    // Incoming edges of v the same way when directed; undirected ones share the above
+    private int[] inIncidenceOffsets;
+    private int[] inIncidentEdges;
+
+
+    EulerianArcs(GraphSnapshot snapshot) {
+        this.snapshot = snapshot;
+        nodesCount = snapshot.nodesCount();
+
+        int directedCount = 0;
+
+        for (int node = 0; node < nodesCount; node++) {
+            for (int arcIter = snapshot.outBegin(node); arcIter < snapshot.outEnd(node); arcIter++) {
+                if (snapshot.outArc(arcIter).isDirected()) {
+                    directedCount++;
+                }
+            }
+        }
+
+        isDirected = directedCount == snapshot.arcsCount();
+        isMixed = directedCount != 0 && !isDirected;
+
+        begins = new int[snapshot.arcsCount()];
+        ends = new int[snapshot.arcsCount()];
+        arcs = new Arc[snapshot.arcsCount()];
+
+        if (isMixed) {
+            return;
+        }
+
+        if (isDirected) {
+            configureDirectedEdges();
+        } else {
+            configureUndirectedEdges();
+        }
+
+        configureIncidence();
+    }
+
+    GraphSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    int nodesCount() {
+        return nodesCount;
+    }
+
+    boolean isDirected() {
+        return isDirected;
+    }
+
+    boolean isMixed() {
+        return isMixed;
+    }
+
+    int edgesCount() {
+        return edgesCount;
+    }
+
+    int beginOf(int edge) {
+        return begins[edge];
+    }
+
+    int endOf(int edge) {
+        return ends[edge];
+    }
+
+    Arc arcOf(int edge) {
+        return arcs[edge];
+    }
+
+    // The end of the edge other than the node given, the node itself for a loop
+    int otherEnd(int edge, int node) {
+        return begins[edge] == node ? ends[edge] : begins[edge];
+    }
+
+    int incidenceBegin(int node) {
+        return incidenceOffsets[node];
+    }
+
+    int incidenceEnd(int node) {
+        return incidenceOffsets[node + 1];
+    }
+
+    int incidentEdge(int position) {
+        return incidentEdges[position];
+    }
+
+    int inIncidenceBegin(int node) {
+        return inIncidenceOffsets[node];
+    }
+
+    int inIncidenceEnd(int node) {
+        return inIncidenceOffsets[node + 1];
+    }
+
+    int inIncidentEdge(int position) {
+        return inIncidentEdges[position];
+    }
+
+    // Both ends of an undirected loop are listed one after the other; the second one repeats the first
+    boolean isRepeatedLoop(int position) {
+        int edge = incidentEdges[position];
+
+        return !isDirected && begins[edge] == ends[edge] && position != 0 && incidentEdges[position - 1] == edge;
+    }
+
+    // Out-degree of a directed graph, degree of an undirected one
+    int degree(int node) {
+        return incidenceOffsets[node + 1] - incidenceOffsets[node];
+    }
+
+    int inDegree(int node) {
+        return isDirected ? inDegrees[node] : degree(node);
+    }
+
+    /*
+     *      Configs
+     */
+
+    private void configureDirectedEdges() {
+        inDegrees = new int[nodesCount];
+
+        for (int node = 0; node < nodesCount; node++) {
+            for (int arcIter = snapshot.outBegin(node); arcIter < snapshot.outEnd(node); arcIter++) {
+                addEdge(node, snapshot.outTarget(arcIter), snapshot.outArc(arcIter));
+                inDegrees[snapshot.outTarget(arcIter)]++;
+            }
+        }
+    }
+
+    // An arc u -> v with u < v makes the edge, then the arc v -> u found at v is its twin.
+    // Arcs left without a twin are edges of their own
+    private void configureUndirectedEdges() {
+        int[] twinsCounts = new int[nodesCount];
+
+        for (int node = 0; node < nodesCount; node++) {
+            for (int arcIter = snapshot.inBegin(node); arcIter < snapshot.inEnd(node); arcIter++) {
+                if (snapshot.inSource(arcIter) < node) {
+                    twinsCounts[snapshot.inSource(arcIter)]++;
+                }
+            }
+
+            int loopsCount = 0;
+
+            for (int arcIter = snapshot.outBegin(node); arcIter < snapshot.outEnd(node); arcIter++) {
+                int adjacent = snapshot.outTarget(arcIter);
+
+                if (adjacent > node) {
+                    addEdge(node, adjacent, snapshot.outArc(arcIter));
+                } else if (adjacent == node) {
+                    if (loopsCount++ % 2 == 0) {
+                        addEdge(node, node, snapshot.outArc(arcIter));
+                    }
+                } else if (twinsCounts[adjacent] != 0) {
+                    twinsCounts[adjacent]--;
+                } else {
+                    addEdge(node, adjacent, snapshot.outArc(arcIter));
+                }
+            }
+
+            for (int arcIter = snapshot.inBegin(node); arcIter < snapshot.inEnd(node); arcIter++) {
+                if (snapshot.inSource(arcIter) < node) {
+                    twinsCounts[snapshot.inSource(arcIter)] = 0;
+                }
+            }
+        }
+    }
+
+    private void configureIncidence() {
+        incidenceOffsets = new int[nodesCount + 1];
+
+        for (int edge = 0; edge < edgesCount; edge++) {
+            incidenceOffsets[begins[edge] + 1]++;
+
+            if (!isDirected) {
+                incidenceOffsets[ends[edge] + 1]++;
+            }
+        }
+
+        for (int node = 0; node < nodesCount; node++) {
+            incidenceOffsets[node + 1] += incidenceOffsets[node];
+        }
+
+        incidentEdges = new int[incidenceOffsets[nodesCount]];
+        int[] fill = new int[nodesCount];
+
+        for (int edge = 0; edge < edgesCount; edge++) {
+            incidentEdges[incidenceOffsets[begins[edge]] + fill[begins[edge]]++] = edge;
+
+            if (!isDirected) {
+                incidentEdges[incidenceOffsets[ends[edge]] + fill[ends[edge]]++] = edge;
+            }
+        }
+
+        if (!isDirected) {
+            inIncidenceOffsets = incidenceOffsets;
+            inIncidentEdges = incidentEdges;
+
+            return;
+        }
+
+        inIncidenceOffsets = new int[nodesCount + 1];
+
+        for (int node = 0; node < nodesCount; node++) {
+            inIncidenceOffsets[node + 1] = inIncidenceOffsets[node] + inDegrees[node];
+        }
+
+        inIncidentEdges = new int[edgesCount];
+        fill = new int[nodesCount];
+
+        for (int edge = 0; edge < edgesCount; edge++) {
+            inIncidentEdges[inIncidenceOffsets[ends[edge]] + fill[ends[edge]]++] = edge;
+        }
+    }
+
+    private void addEdge(int begin, int end, Arc arc) {
+        begins[edgesCount] = begin;
+        ends[edgesCount] = end;
+        arcs[edgesCount] = arc;
+        edgesCount++;
+    }
+}
@@ -0,0 +1,84 @@
+package controller;
+
+import model.Arc;
+import model.Node;
+import model.Path;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+// One circuit of EulerianCircuits: its nodes and its arcs in the order it goes. Circuits that
+// differ only in which of parallel arcs they take are different ones, so they're told apart by
+// their arcs themselves, and parallel arcs are numbered in the text
+public class EulerianCircuit {
+    private Path path;
+    private List<Arc> arcs;
+    private int[] parallelNumbers;
+
+
+    // Number i of the arc i among arcs with the same ends, 0 when it has no parallel ones
+    EulerianCircuit(Path path, List<Arc> arcs, int[] parallelNumbers) {
+        this.path = path;
+        this.arcs = Collections.unmodifiableList(new ArrayList<>(arcs));
+        this.parallelNumbers = parallelNumbers;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    // One of the two arcs of each undirected edge, whichever way it points;
+    // the path tells the direction the circuit goes along it
+    public List<Arc> getArcs() {
+        return arcs;
+    }
+
+    // u -> v -> u, or u -1-> v -> u -2-> v -> u when there are two arcs u -> v
+    @Override
+    public String toString() {
+        List<Node> nodes = path.getPath();
+        StringBuilder circuitToString = new StringBuilder(nodes.get(0).toString());
+
+        for (int arcIter = 0; arcIter < arcs.size(); arcIter++) {
+            String link = parallelNumbers[arcIter] == 0 ? "-" : "-" + parallelNumbers[arcIter] + "-";
+
+            circuitToString.append(arcs.get(arcIter).isDirected() ? " " + link + "> " : " " + link + " ")
+                    .append(nodes.get(arcIter + 1));
+        }
+
+        return circuitToString.toString();
+    }
+
+    // Arc.equals takes parallel arcs for the same one, so arcs are compared as objects
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EulerianCircuit circuitToCheck = (EulerianCircuit) o;
+
+        if (arcs.size() != circuitToCheck.arcs.size()) {
+            return false;
+        }
+
+        for (int arcIter = 0; arcIter < arcs.size(); arcIter++) {
+            if (arcs.get(arcIter) != circuitToCheck.arcs.get(arcIter)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+
+        for (Arc arc : arcs) {
+            hash = 31 * hash + Long.hashCode(arc.getIdentifier());
+        }
+
+        return hash;
+    }
+}
@@ -0,0 +1,578 @@
+package controller;
+
+import model.Arc;
+import model.Graph;
+import model.Path;
+
+import java.math.BigInteger;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+
+// All Eulerian circuits of the graph, each one once: every circuit is taken from the same first
+// edge, and an undirected one in the same direction along it. They are found lazily by a
+// depth-first search over the snapshot that keeps O(V + E) memory; by Fleury's rule an edge is
+// taken only when it doesn't cut the unused edges off its end, so no branch of the search is a dead end.
+// Circuits can also be counted without listing them: by the BEST theorem for a directed graph,
+// by counting trails over sets of used edges for an undirected one. How many of those sets come
+// up depends on the density as much as on the number of edges, so the count is given up once
+// MAX_COUNTED_STATES of them are kept; the sets are bits of a long, so MAX_COUNTED_EDGES at most
+// Cancelling stops every enumeration and count of this object
+public class EulerianCircuits implements Iterable<EulerianCircuit> {
+    public static final int MAX_COUNTED_EDGES = 63;
+    public static final int MAX_COUNTED_STATES = 1 << 20;
+
+    private static final int NONE = -1;
+
+    private EulerianArcs eulerianArcs;
+    private int edgesCount;
+    private int firstEdge;
+    private boolean isAllLoops;
+    private boolean hasCircuits;
+
+    // Number of each edge among edges with the same ends, 0 when it has no parallel ones
+    private int[] parallelNumbers;
+
+    private volatile boolean isCancelled;
+    private boolean isCountGivenUp;
+
+
+    public EulerianCircuits(Graph graph) {
+        eulerianArcs = new EulerianArcs(graph.snapshot());
+        edgesCount = eulerianArcs.edgesCount();
+
+        configureFirstEdge();
+        configureParallelNumbers();
+        hasCircuits = !eulerianArcs.isMixed() && firstEdge != NONE && isBalanced()
+                && isExtendable(new boolean[edgesCount], eulerianArcs.beginOf(firstEdge), new int[eulerianArcs.nodesCount()]);
+    }
+
+    // Graphs with both directed and undirected arcs have no circuits here
+    public boolean isMixed() {
+        return eulerianArcs.isMixed();
+    }
+
+    public void cancel() {
+        isCancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return isCancelled;
+    }
+
+    @Override
+    public Iterator<EulerianCircuit> iterator() {
+        return new CircuitIterator();
+    }
+
+    @Override
+    public Spliterator<EulerianCircuit> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    }
+
+    public Stream<EulerianCircuit> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    // Number of circuits, null when an undirected graph is too large to count them,
+    // when the graph is mixed or when cancelled
+    public BigInteger count() {
+        if (eulerianArcs.isMixed()) {
+            return null;
+        }
+
+        if (!hasCircuits) {
+            return BigInteger.ZERO;
+        }
+
+        BigInteger count = eulerianArcs.isDirected() ? countDirected() : countUndirected();
+
+        return isCancelled ? null : count;
+    }
+
+    /*
+     *      Configs
+     */
+
+    // An undirected circuit is told from its reverse by the direction of the first edge,
+    // which a loop hasn't got, so a loop is first only when all edges are loops
+    private void configureFirstEdge() {
+        firstEdge = edgesCount == 0 ? NONE : 0;
+
+        for (int edge = 0; edge < edgesCount && !eulerianArcs.isDirected(); edge++) {
+            if (eulerianArcs.beginOf(edge) != eulerianArcs.endOf(edge)) {
+                firstEdge = edge;
+                break;
+            }
+        }
+
+        isAllLoops = !eulerianArcs.isDirected() && firstEdge != NONE
+                && eulerianArcs.beginOf(firstEdge) == eulerianArcs.endOf(firstEdge);
+    }
+
+    // Undirected edges are keyed by their ends either way round
+    private void configureParallelNumbers() {
+        Map<Long, Integer> counts = new HashMap<>();
+        long[] keys = new long[edgesCount];
+
+        parallelNumbers = new int[edgesCount];
+
+        for (int edge = 0; edge < edgesCount; edge++) {
+            int begin = eulerianArcs.beginOf(edge);
+            int end = eulerianArcs.endOf(edge);
+
+            if (!eulerianArcs.isDirected() && begin > end) {
+                int swap = begin;
+                begin = end;
+                end = swap;
+            }
+
+            keys[edge] = (long) begin * eulerianArcs.nodesCount() + end;
+            parallelNumbers[edge] = counts.merge(keys[edge], 1, Integer::sum);
+        }
+
+        for (int edge = 0; edge < edgesCount; edge++) {
+            if (counts.get(keys[edge]) == 1) {
+                parallelNumbers[edge] = 0;
+            }
+        }
+    }
+
+    private boolean isBalanced() {
+        for (int node = 0; node < eulerianArcs.nodesCount(); node++) {
+            boolean isBalanced = eulerianArcs.isDirected()
+                    ? eulerianArcs.degree(node) == eulerianArcs.inDegree(node)
+                    : eulerianArcs.degree(node) % 2 == 0;
+
+            if (!isBalanced) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // Whether the unused edges, if any, are connected and reach the node. With degrees balanced
+    // but at the node and the start, that's all a trail over them needs. Union-find over the ends
+    // of the unused edges only, O(E), so it's only made once for the whole graph
+    private boolean isExtendable(boolean[] isUsed, int node, int[] parents) {
+        boolean isReached = false;
+        boolean isEmpty = true;
+
+        for (int edge = 0; edge < edgesCount; edge++) {
+            if (!isUsed[edge]) {
+                parents[eulerianArcs.beginOf(edge)] = eulerianArcs.beginOf(edge);
+                parents[eulerianArcs.endOf(edge)] = eulerianArcs.endOf(edge);
+                isReached |= eulerianArcs.beginOf(edge) == node || eulerianArcs.endOf(edge) == node;
+                isEmpty = false;
+            }
+        }
+
+        if (isEmpty) {
+            return true;
+        }
+
+        if (!isReached) {
+            return false;
+        }
+
+        for (int edge = 0; edge < edgesCount; edge++) {
+            if (!isUsed[edge]) {
+                parents[root(parents, eulerianArcs.beginOf(edge))] = root(parents, eulerianArcs.endOf(edge));
+            }
+        }
+
+        int nodeRoot = root(parents, node);
+
+        for (int edge = 0; edge < edgesCount; edge++) {
+            if (!isUsed[edge] && root(parents, eulerianArcs.beginOf(edge)) != nodeRoot) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int root(int[] parents, int node) {
+        while (parents[node] != node) {
+            parents[node] = parents[parents[node]];
+            node = parents[node];
+        }
+
+        return node;
+    }
+
+    /*
+     *      Enumeration
+     */
+
+    // The trail is kept on arrays: the edge and the node after it at each depth, and the next
+    // incidence to try at each node of it. Nothing is searched until the first circuit is asked for
+    private class CircuitIterator implements Iterator<EulerianCircuit> {
+        private boolean[] isUsed;
+        private int[] unusedDegrees;
+        private int[] trailEdges;
+        private int[] trailNodes;
+        private int[] nextIncidences;
+        private int depth;
+
+        // Sides of the nodes the last cut check reached: searchStamp from the adjacent node,
+        // searchStamp + 1 from the node left
+        private int[] sides;
+        private int searchStamp;
+        private int[][] queues;
+
+        private EulerianCircuit next;
+        private boolean isAdvanced;
+        private boolean isExhausted;
+
+
+        CircuitIterator() {
+            isExhausted = !hasCircuits;
+
+            if (isExhausted) {
+                return;
+            }
+
+            isUsed = new boolean[edgesCount];
+            unusedDegrees = new int[eulerianArcs.nodesCount()];
+            trailEdges = new int[edgesCount];
+            trailNodes = new int[edgesCount + 1];
+            nextIncidences = new int[edgesCount + 1];
+
+            sides = new int[eulerianArcs.nodesCount()];
+            queues = new int[2][eulerianArcs.nodesCount()];
+
+            for (int node = 0; node < eulerianArcs.nodesCount(); node++) {
+                unusedDegrees[node] = eulerianArcs.degree(node);
+            }
+
+            // The first edge is the same for all circuits
+            use(firstEdge);
+            trailEdges[0] = firstEdge;
+            trailNodes[0] = eulerianArcs.beginOf(firstEdge);
+            trailNodes[1] = eulerianArcs.endOf(firstEdge);
+            nextIncidences[1] = eulerianArcs.incidenceBegin(trailNodes[1]);
+            depth = 1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!isAdvanced) {
+                next = advance();
+                isAdvanced = true;
+            }
+
+            if (isCancelled) {
+                next = null;
+            }
+
+            return next != null;
+        }
+
+        @Override
+        public EulerianCircuit next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            isAdvanced = false;
+
+            return next;
+        }
+
+        // Goes on from the last circuit found, if any, to the next one; null when there are no more
+        private EulerianCircuit advance() {
+            if (!isExhausted && next != null) {
+                backtrack();
+            }
+
+            while (!isExhausted && !isCancelled) {
+                if (depth == edgesCount) {
+                    // An undirected circuit over loops only and its reverse are the same
+                    if (!isAllLoops || edgesCount < 3 || trailEdges[1] < trailEdges[edgesCount - 1]) {
+                        return toCircuit();
+                    }
+
+                    backtrack();
+                    continue;
+                }
+
+                int node = trailNodes[depth];
+                int position = nextIncidences[depth]++;
+
+                if (position >= eulerianArcs.incidenceEnd(node)) {
+                    backtrack();
+                    continue;
+                }
+
+                int edge = eulerianArcs.incidentEdge(position);
+
+                if (isUsed[edge] || eulerianArcs.isRepeatedLoop(position)) {
+                    continue;
+                }
+
+                int adjacent = eulerianArcs.otherEnd(edge, node);
+                use(edge);
+
+                if (!isStillLinked(node, adjacent)) {
+                    release(edge);
+                    continue;
+                }
+
+                trailEdges[depth] = edge;
+                trailNodes[++depth] = adjacent;
+                nextIncidences[depth] = eulerianArcs.incidenceBegin(adjacent);
+            }
+
+            return null;
+        }
+
+        private void backtrack() {
+            // The first edge is never taken back
+            if (depth == 1) {
+                isExhausted = true;
+                return;
+            }
+
+            release(trailEdges[--depth]);
+        }
+
+        // Out-degrees of unused edges when directed, degrees otherwise
+        private void use(int edge) {
+            isUsed[edge] = true;
+            unusedDegrees[eulerianArcs.beginOf(edge)]--;
+
+            if (!eulerianArcs.isDirected()) {
+                unusedDegrees[eulerianArcs.endOf(edge)]--;
+            }
+        }
+
+        private void release(int edge) {
+            isUsed[edge] = false;
+            unusedDegrees[eulerianArcs.beginOf(edge)]++;
+
+            if (!eulerianArcs.isDirected()) {
+                unusedDegrees[eulerianArcs.endOf(edge)]++;
+            }
+        }
+
+        // Whether the unused edges still join the adjacent node to the node the edge just taken left.
+        // A loop or the last edge out of the node can't cut anything off. Otherwise two searches over
+        // unused edges, directions ignored, from both nodes go on by the smaller frontier until they
+        // meet: with degrees balanced, unused edges that hang together always make a trail. When the
+        // edge is a bridge the search of the smaller side runs out early, when it isn't a short way
+        // round is usually found soon
+        private boolean isStillLinked(int node, int adjacent) {
+            if (node == adjacent || unusedDegrees[node] == 0) {
+                return true;
+            }
+
+            if (searchStamp >= Integer.MAX_VALUE - 2) {
+                Arrays.fill(sides, 0);
+                searchStamp = 0;
+            }
+            searchStamp += 2;
+
+            int[] heads = new int[2];
+            int[] tails = new int[2];
+
+            sides[adjacent] = searchStamp;
+            sides[node] = searchStamp + 1;
+            queues[0][tails[0]++] = adjacent;
+            queues[1][tails[1]++] = node;
+
+            while (heads[0] != tails[0] && heads[1] != tails[1]) {
+                int side = tails[0] - heads[0] <= tails[1] - heads[1] ? 0 : 1;
+                int current = queues[side][heads[side]++];
+
+                if (reachesOtherSide(current, side, tails, false)
+                        || eulerianArcs.isDirected() && reachesOtherSide(current, side, tails, true)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        // Marks the ends of unused edges of the node, outgoing or incoming ones, and queues them
+        private boolean reachesOtherSide(int current, int side, int[] tails, boolean isIncoming) {
+            int begin = isIncoming ? eulerianArcs.inIncidenceBegin(current) : eulerianArcs.incidenceBegin(current);
+            int end = isIncoming ? eulerianArcs.inIncidenceEnd(current) : eulerianArcs.incidenceEnd(current);
+
+            for (int position = begin; position < end; position++) {
+                int edge = isIncoming ? eulerianArcs.inIncidentEdge(position) : eulerianArcs.incidentEdge(position);
+                int reached = eulerianArcs.otherEnd(edge, current);
+
+                if (isUsed[edge] || sides[reached] == searchStamp + side) {
+                    continue;
+                }
+
+                if (sides[reached] == searchStamp + 1 - side) {
+                    return true;
+                }
+
+                sides[reached] = searchStamp + side;
+                queues[side][tails[side]++] = reached;
+            }
+
+            return false;
+        }
+
+        private EulerianCircuit toCircuit() {
+            Path path = new Path();
+            List<Arc> arcs = new ArrayList<>(edgesCount);
+            int[] arcsParallelNumbers = new int[edgesCount];
+
+            for (int nodeIter = 0; nodeIter <= edgesCount; nodeIter++) {
+                path.getPath().add(eulerianArcs.getSnapshot().nodeAt(trailNodes[nodeIter]));
+            }
+
+            for (int edgeIter = 0; edgeIter < edgesCount; edgeIter++) {
+                arcs.add(eulerianArcs.arcOf(trailEdges[edgeIter]));
+                arcsParallelNumbers[edgeIter] = parallelNumbers[trailEdges[edgeIter]];
+            }
+
+            return new EulerianCircuit(path, arcs, arcsParallelNumbers);
+        }
+    }
+
+    /*
+     *      Counting
+     */
+
+    // BEST theorem: arborescences towards any node, times (d - 1)! over out-degrees d of nodes
+    // with arcs. The arborescences are counted by the Laplacian minor's determinant
+    private BigInteger countDirected() {
+        int[] indices = new int[eulerianArcs.nodesCount()];
+        int nodesCount = 0;
+        BigInteger count = BigInteger.ONE;
+
+        for (int node = 0; node < eulerianArcs.nodesCount(); node++) {
+            indices[node] = eulerianArcs.degree(node) == 0 ? NONE : nodesCount++;
+
+            for (int factor = 2; factor < eulerianArcs.degree(node); factor++) {
+                count = count.multiply(BigInteger.valueOf(factor));
+            }
+        }
+
+        // The node of index 0 is the root, its row and column are left out
+        BigInteger[][] minor = new BigInteger[nodesCount - 1][nodesCount - 1];
+
+        for (BigInteger[] row : minor) {
+            Arrays.fill(row, BigInteger.ZERO);
+        }
+
+        for (int edge = 0; edge < edgesCount; edge++) {
+            int begin = indices[eulerianArcs.beginOf(edge)] - 1;
+            int end = indices[eulerianArcs.endOf(edge)] - 1;
+
+            // Loops add to the out-degree and to the adjacency alike
+            if (begin == end || begin == -1) {
+                continue;
+            }
+
+            minor[begin][begin] = minor[begin][begin].add(BigInteger.ONE);
+
+            if (end != -1) {
+                minor[begin][end] = minor[begin][end].subtract(BigInteger.ONE);
+            }
+        }
+
+        return count.multiply(determinant(minor));
+    }
+
+    // Bareiss' fraction-free elimination: every division is exact, so the entries stay integers
+    // no longer than the determinant. O(n^3) operations on them
+    private BigInteger determinant(BigInteger[][] matrix) {
+        int size = matrix.length;
+        BigInteger previousPivot = BigInteger.ONE;
+        boolean isNegated = false;
+
+        for (int pivot = 0; pivot < size && !isCancelled; pivot++) {
+            if (matrix[pivot][pivot].signum() == 0) {
+                int swapped = pivot + 1;
+
+                while (swapped < size && matrix[swapped][pivot].signum() == 0) {
+                    swapped++;
+                }
+
+                if (swapped == size) {
+                    return BigInteger.ZERO;
+                }
+
+                BigInteger[] row = matrix[pivot];
+                matrix[pivot] = matrix[swapped];
+                matrix[swapped] = row;
+                isNegated = !isNegated;
+            }
+
+            for (int row = pivot + 1; row < size; row++) {
+                for (int column = pivot + 1; column < size; column++) {
+                    matrix[row][column] = matrix[row][column].multiply(matrix[pivot][pivot])
+                            .subtract(matrix[row][pivot].multiply(matrix[pivot][column]))
+                            .divide(previousPivot);
+                }
+            }
+
+            previousPivot = matrix[pivot][pivot];
+        }
+
+        BigInteger determinant = size == 0 ? BigInteger.ONE : matrix[size - 1][size - 1];
+
+        return isNegated ? determinant.negate() : determinant;
+    }
+
+    // Trails from the first edge over all edges, counted once for every set of used edges:
+    // the node the trail has stopped at is the one of odd used degree other than the start
+    private BigInteger countUndirected() {
+        if (edgesCount > MAX_COUNTED_EDGES) {
+            return null;
+        }
+
+        Map<Long, BigInteger> counts = new HashMap<>();
+        isCountGivenUp = false;
+        BigInteger count = countTrails(1L << firstEdge, eulerianArcs.endOf(firstEdge), counts);
+
+        if (isCountGivenUp) {
+            return null;
+        }
+
+        // Every circuit over loops only is counted along with its reverse
+        return isAllLoops && edgesCount >= 3 ? count.shiftRight(1) : count;
+    }
+
+    private BigInteger countTrails(long usedEdges, int node, Map<Long, BigInteger> counts) {
+        if (usedEdges == (1L << edgesCount) - 1) {
+            return BigInteger.ONE;
+        }
+
+        BigInteger count = counts.get(usedEdges);
+
+        if (count != null || isCancelled || isCountGivenUp) {
+            return count == null ? BigInteger.ZERO : count;
+        }
+
+        if (counts.size() >= MAX_COUNTED_STATES) {
+            isCountGivenUp = true;
+
+            return BigInteger.ZERO;
+        }
+
+        count = BigInteger.ZERO;
+
+        for (int position = eulerianArcs.incidenceBegin(node); position < eulerianArcs.incidenceEnd(node); position++) {
+            int edge = eulerianArcs.incidentEdge(position);
+
+            if ((usedEdges & (1L << edge)) == 0 && !eulerianArcs.isRepeatedLoop(position)) {
+                count = count.add(countTrails(usedEdges | (1L << edge), eulerianArcs.otherEnd(edge, node), counts));
+            }
+        }
+
+        counts.put(usedEdges, count);
+
+        return count;
+    }
+}
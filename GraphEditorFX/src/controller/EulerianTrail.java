@@ -0,0 +1,239 @@
+package controller;
+
+import model.Arc;
+import model.Graph;
+import model.Node;
+import model.Path;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+// One Eulerian circuit or trail by Hierholzer's algorithm over the snapshot, O(V + E). Degrees
+// are checked first: in- and out-degrees equal everywhere (or off by one at the two ends) for a
+// directed graph, no odd degrees (or two) for an undirected one. Then all arcs must lie in one
+// connected piece. When there's no walk, the nodes that break one of these are kept
+public class EulerianTrail {
+    public enum Kind { CIRCUIT, TRAIL, NONE }
+
+    private static final int NONE = -1;
+
+    private Graph graph;
+
+    private Kind kind;
+    private boolean isMixed;
+    private Path path;
+    private List<Arc> arcs;
+    private List<Node> unbalancedNodes;
+    private List<Node> unreachableNodes;
+
+
+    public EulerianTrail(Graph graph) {
+        this.graph = graph;
+
+        kind = Kind.NONE;
+        arcs = new ArrayList<>();
+        unbalancedNodes = new ArrayList<>();
+        unreachableNodes = new ArrayList<>();
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    // Graphs with both directed and undirected arcs aren't walked
+    public boolean isMixed() {
+        return isMixed;
+    }
+
+    // Nodes of the walk found in order, null when there's none
+    public Path getPath() {
+        return path;
+    }
+
+    // Arcs of the walk found in order, one of the two arcs of each undirected edge, whichever
+    // way it points; the path tells the direction the walk goes along it
+    public List<Arc> getArcs() {
+        return arcs;
+    }
+
+    // Nodes whose degrees allow no walk
+    public List<Node> getUnbalancedNodes() {
+        return unbalancedNodes;
+    }
+
+    // Nodes with arcs out of reach of the others
+    public List<Node> getUnreachableNodes() {
+        return unreachableNodes;
+    }
+
+    // The walk, or null when there's none. Graph without arcs has none
+    public Path find() {
+        EulerianArcs eulerianArcs = new EulerianArcs(graph.snapshot());
+
+        kind = Kind.NONE;
+        isMixed = eulerianArcs.isMixed();
+        path = null;
+        arcs.clear();
+        unbalancedNodes.clear();
+        unreachableNodes.clear();
+
+        if (isMixed || eulerianArcs.edgesCount() == 0) {
+            return null;
+        }
+
+        int start = findStart(eulerianArcs);
+
+        if (start == NONE || !isConnected(eulerianArcs, start)) {
+            return null;
+        }
+
+        path = walk(eulerianArcs, start);
+
+        return path;
+    }
+
+    /*
+     *      Conditions
+     */
+
+    // The node the walk has to start from, NONE when degrees allow no walk
+    private int findStart(EulerianArcs eulerianArcs) {
+        int start = eulerianArcs.beginOf(0);
+        int trailStartsCount = 0;
+        int trailEndsCount = 0;
+
+        for (int node = 0; node < eulerianArcs.nodesCount(); node++) {
+            int excess = eulerianArcs.isDirected()
+                    ? eulerianArcs.degree(node) - eulerianArcs.inDegree(node)
+                    : eulerianArcs.degree(node) % 2;
+
+            if (excess == 0) {
+                continue;
+            }
+
+            unbalancedNodes.add(eulerianArcs.getSnapshot().nodeAt(node));
+
+            // An undirected trail may start from either of its odd ends
+            if (excess == 1 && trailStartsCount++ == 0) {
+                start = node;
+            } else if (excess == -1) {
+                trailEndsCount++;
+            }
+        }
+
+        boolean isCircuit = unbalancedNodes.isEmpty();
+        boolean isTrail = eulerianArcs.isDirected()
+                ? unbalancedNodes.size() == 2 && trailStartsCount == 1 && trailEndsCount == 1
+                : unbalancedNodes.size() == 2;
+
+        if (!isCircuit && !isTrail) {
+            return NONE;
+        }
+
+        unbalancedNodes.clear();
+        kind = isCircuit ? Kind.CIRCUIT : Kind.TRAIL;
+
+        return start;
+    }
+
+    // Union-find over the ends of the edges, directions ignored
+    private boolean isConnected(EulerianArcs eulerianArcs, int start) {
+        int[] parents = new int[eulerianArcs.nodesCount()];
+
+        for (int node = 0; node < parents.length; node++) {
+            parents[node] = node;
+        }
+
+        for (int edge = 0; edge < eulerianArcs.edgesCount(); edge++) {
+            parents[root(parents, eulerianArcs.beginOf(edge))] = root(parents, eulerianArcs.endOf(edge));
+        }
+
+        int startRoot = root(parents, start);
+
+        for (int node = 0; node < parents.length; node++) {
+            boolean hasArcs = eulerianArcs.degree(node) != 0 || eulerianArcs.inDegree(node) != 0;
+
+            if (hasArcs && root(parents, node) != startRoot) {
+                unreachableNodes.add(eulerianArcs.getSnapshot().nodeAt(node));
+            }
+        }
+
+        if (!unreachableNodes.isEmpty()) {
+            kind = Kind.NONE;
+        }
+
+        return unreachableNodes.isEmpty();
+    }
+
+    private static int root(int[] parents, int node) {
+        while (parents[node] != node) {
+            parents[node] = parents[parents[node]];
+            node = parents[node];
+        }
+
+        return node;
+    }
+
+    /*
+     *      Hierholzer's algorithm
+     */
+
+    // The walk goes on by unused edges until it's stuck, which only happens back at its start
+    // (or at the trail end); stuck nodes are popped to the result, the closed subwalks found from
+    // the nodes below get spliced in on the way. The result comes out reversed
+    private Path walk(EulerianArcs eulerianArcs, int start) {
+        int edgesCount = eulerianArcs.edgesCount();
+        int[] nextIncidences = new int[eulerianArcs.nodesCount()];
+        boolean[] isUsed = new boolean[edgesCount];
+
+        int[] stackNodes = new int[edgesCount + 1];
+        int[] stackEdges = new int[edgesCount + 1];
+        int stackSize = 0;
+
+        int[] walkNodes = new int[edgesCount + 1];
+        int[] walkEdges = new int[edgesCount + 1];
+        int walkSize = 0;
+
+        for (int node = 0; node < nextIncidences.length; node++) {
+            nextIncidences[node] = eulerianArcs.incidenceBegin(node);
+        }
+
+        stackNodes[stackSize] = start;
+        stackEdges[stackSize++] = NONE;
+
+        while (stackSize != 0) {
+            int current = stackNodes[stackSize - 1];
+
+            while (nextIncidences[current] < eulerianArcs.incidenceEnd(current)
+                    && isUsed[eulerianArcs.incidentEdge(nextIncidences[current])]) {
+                nextIncidences[current]++;
+            }
+
+            if (nextIncidences[current] == eulerianArcs.incidenceEnd(current)) {
+                stackSize--;
+                walkNodes[walkSize] = current;
+                walkEdges[walkSize++] = stackEdges[stackSize];
+                continue;
+            }
+
+            int edge = eulerianArcs.incidentEdge(nextIncidences[current]++);
+
+            isUsed[edge] = true;
+            stackNodes[stackSize] = eulerianArcs.otherEnd(edge, current);
+            stackEdges[stackSize++] = edge;
+        }
+
+        Path path = new Path();
+
+        for (int walkIter = walkSize - 1; walkIter >= 0; walkIter--) {
+            path.getPath().add(eulerianArcs.getSnapshot().nodeAt(walkNodes[walkIter]));
+
+            if (walkEdges[walkIter] != NONE) {
+                arcs.add(eulerianArcs.arcOf(walkEdges[walkIter]));
+            }
+        }
+
+        return path;
+    }
+}
@@ -0,0 +1,370 @@
+package controller;
+
+import model.Graph;
+import model.GraphSnapshot;
+
+import java.util.Arrays;
+
+
+// Chromatic number by DSATUR branch and bound, meant for graphs of a few hundred nodes.
+// Neighbourhoods are bitsets of long words. A greedy clique gives the lower bound and is
+// colored before the search, so no coloring is tried again with its colors renamed; the
+// DSATUR coloring of Colorer gives the first upper bound. The time limit covers the clique
+// as well: when the time is out, the best coloring found so far is kept along with the largest
+// clique found so far, which still bounds the number from below. Graphs of more
+// than MAX_NODES nodes aren't searched: their neighbourhoods would take V * V / 64 words, so
+// only the DSATUR coloring is given, with the bound of a single arc
+public class ExactColorer {
+    public static final long DEFAULT_TIME_LIMIT = 5000;
+    public static final int MAX_NODES = 2000;
+
+    private static final int NONE = -1;
+    private static final int DEADLINE_CHECK_PERIOD = 1024;
+
+    private GraphSnapshot snapshot;
+    private int nodesCount;
+    private long[][] adjacency;
+    private int[] degrees;
+
+    private long timeLimit;
+    private int lowerBound;
+    private boolean isOptimal;
+
+    // Search state
+    private int[] colors;
+    private int[][] neighbourColorsCounts;
+    private int[] saturations;
+    private int[] uncoloredDegrees;
+    private int[] bestColors;
+    private int bestColorsCount;
+    private long deadline;
+    private long searchedCount;
+    private boolean isTimeOut;
+
+
+    public ExactColorer(Graph graph) {
+        this(graph.snapshot());
+    }
+
+    // Heavy for large graphs, so it may be built off the thread the snapshot is taken on
+    public ExactColorer(GraphSnapshot snapshot) {
+        this.snapshot = snapshot;
+        nodesCount = snapshot.nodesCount();
+        timeLimit = DEFAULT_TIME_LIMIT;
+
+        if (isSearchable()) {
+            configureAdjacency();
+        }
+    }
+
+    // Whether the graph is small enough for the search
+    public boolean isSearchable() {
+        return nodesCount <= MAX_NODES;
+    }
+
+    // Milliseconds the search may take
+    public long getTimeLimit() {
+        return timeLimit;
+    }
+
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
+    // The least number of colors proven to be needed by the last coloring
+    public int getLowerBound() {
+        return lowerBound;
+    }
+
+    // Whether the last coloring uses the chromatic number of colors
+    public boolean isOptimal() {
+        return isOptimal;
+    }
+
+    public Coloring colorize() {
+        deadline = System.nanoTime() + timeLimit * 1000000;
+        isTimeOut = false;
+
+        Coloring heuristicColoring = new Colorer(snapshot).colorize(Colorer.Strategy.DSATUR);
+
+        if (!isSearchable()) {
+            lowerBound = Math.min(heuristicColoring.colorsCount(), 2);
+            isOptimal = heuristicColoring.colorsCount() == lowerBound;
+
+            return heuristicColoring;
+        }
+
+        int[] clique = findClique();
+
+        bestColors = heuristicColoring.getColors().clone();
+        bestColorsCount = heuristicColoring.colorsCount();
+        lowerBound = clique.length;
+
+        if (bestColorsCount > lowerBound && !isTimeOut) {
+            search(clique);
+        }
+
+        isOptimal = bestColorsCount == lowerBound || !isTimeOut;
+
+        if (isOptimal) {
+            lowerBound = bestColorsCount;
+        }
+
+        return new Coloring(snapshot, bestColors, bestColorsCount);
+    }
+
+    /*
+     *      Configs
+     */
+
+    private void configureAdjacency() {
+        int words = (nodesCount + 63) / 64;
+
+        adjacency = new long[nodesCount][words];
+        degrees = new int[nodesCount];
+
+        for (int node = 0; node < nodesCount; node++) {
+            for (int arcIter = snapshot.outBegin(node); arcIter < snapshot.outEnd(node); arcIter++) {
+                int adjacent = snapshot.outTarget(arcIter);
+
+                // Loops are ignored
+                if (adjacent != node) {
+                    adjacency[node][adjacent / 64] |= 1L << adjacent;
+                    adjacency[adjacent][node / 64] |= 1L << node;
+                }
+            }
+        }
+
+        for (int node = 0; node < nodesCount; node++) {
+            degrees[node] = cardinality(adjacency[node]);
+        }
+    }
+
+    /*
+     *      Lower bound
+     */
+
+    // From every node a clique grows by the candidate with the most candidates among its
+    // neighbours; the largest clique of those is taken, or the largest one before the time is out
+    private int[] findClique() {
+        int[] bestClique = new int[0];
+        int[] clique = new int[nodesCount];
+        long[] candidates = new long[adjacency.length == 0 ? 0 : adjacency[0].length];
+
+        for (int start = 0; start < nodesCount; start++) {
+            // The first clique is always grown, so there is a bound to give
+            if (bestClique.length != 0 && System.nanoTime() > deadline) {
+                isTimeOut = true;
+                break;
+            }
+
+            // A clique through the node can't be larger than its degree and one
+            if (degrees[start] + 1 <= bestClique.length) {
+                continue;
+            }
+
+            int cliqueSize = 0;
+            clique[cliqueSize++] = start;
+            System.arraycopy(adjacency[start], 0, candidates, 0, candidates.length);
+
+            while (cliqueSize + cardinality(candidates) > bestClique.length) {
+                int next = NONE;
+                int nextCandidatesCount = -1;
+
+                for (int candidate = nextSetBit(candidates, 0); candidate != NONE; candidate = nextSetBit(candidates, candidate + 1)) {
+                    int candidatesCount = intersectionCardinality(adjacency[candidate], candidates);
+
+                    if (candidatesCount > nextCandidatesCount) {
+                        next = candidate;
+                        nextCandidatesCount = candidatesCount;
+                    }
+                }
+
+                if (next == NONE) {
+                    break;
+                }
+
+                clique[cliqueSize++] = next;
+
+                for (int word = 0; word < candidates.length; word++) {
+                    candidates[word] &= adjacency[next][word];
+                }
+            }
+
+            if (cliqueSize > bestClique.length) {
+                bestClique = Arrays.copyOf(clique, cliqueSize);
+            }
+        }
+
+        return bestClique;
+    }
+
+    /*
+     *      Branch and bound
+     */
+
+    // Depth-first over the uncolored nodes with an explicit stack: the node branched on at each
+    // depth, the color it has now and the number of colors used above it
+    private void search(int[] clique) {
+        colors = new int[nodesCount];
+        neighbourColorsCounts = new int[nodesCount][bestColorsCount];
+        saturations = new int[nodesCount];
+        uncoloredDegrees = degrees.clone();
+        searchedCount = 0;
+
+        Arrays.fill(colors, Coloring.NO_COLOR);
+
+        for (int color = 0; color < clique.length; color++) {
+            assign(clique[color], color);
+        }
+
+        int freeCount = nodesCount - clique.length;
+
+        if (freeCount == 0) {
+            bestColors = colors.clone();
+            bestColorsCount = clique.length;
+
+            return;
+        }
+
+        int[] branchNodes = new int[freeCount];
+        int[] branchColors = new int[freeCount];
+        int[] branchColorsCounts = new int[freeCount];
+        int depth = 0;
+
+        branchNodes[0] = mostSaturatedNode();
+        branchColors[0] = Coloring.NO_COLOR;
+        branchColorsCounts[0] = clique.length;
+
+        while (depth >= 0) {
+            if ((++searchedCount % DEADLINE_CHECK_PERIOD) == 0 && System.nanoTime() > deadline) {
+                isTimeOut = true;
+            }
+
+            if (isTimeOut || bestColorsCount == lowerBound) {
+                return;
+            }
+
+            int node = branchNodes[depth];
+            int colorsCount = branchColorsCounts[depth];
+            int color = branchColors[depth];
+
+            if (color != Coloring.NO_COLOR) {
+                unassign(node, color);
+            }
+
+            // A new color is tried only while it keeps the coloring better than the best one
+            int colorsLimit = Math.min(colorsCount + 1, bestColorsCount - 1);
+
+            do {
+                color++;
+            } while (color < colorsLimit && neighbourColorsCounts[node][color] != 0);
+
+            if (color >= colorsLimit) {
+                depth--;
+                continue;
+            }
+
+            assign(node, color);
+            branchColors[depth] = color;
+
+            if (depth + 1 == freeCount) {
+                bestColors = colors.clone();
+                bestColorsCount = Math.max(colorsCount, color + 1);
+                continue;
+            }
+
+            depth++;
+            branchNodes[depth] = mostSaturatedNode();
+            branchColors[depth] = Coloring.NO_COLOR;
+            branchColorsCounts[depth] = Math.max(colorsCount, color + 1);
+        }
+    }
+
+    // The most distinct colors around, then the most uncolored neighbours
+    private int mostSaturatedNode() {
+        int mostSaturated = NONE;
+
+        for (int node = 0; node < nodesCount; node++) {
+            if (colors[node] != Coloring.NO_COLOR) {
+                continue;
+            }
+
+            if (mostSaturated == NONE || saturations[node] > saturations[mostSaturated]
+                    || (saturations[node] == saturations[mostSaturated]
+                    && uncoloredDegrees[node] > uncoloredDegrees[mostSaturated])) {
+                mostSaturated = node;
+            }
+        }
+
+        return mostSaturated;
+    }
+
+    private void assign(int node, int color) {
+        colors[node] = color;
+
+        for (int adjacent = nextSetBit(adjacency[node], 0); adjacent != NONE; adjacent = nextSetBit(adjacency[node], adjacent + 1)) {
+            if (neighbourColorsCounts[adjacent][color]++ == 0) {
+                saturations[adjacent]++;
+            }
+
+            uncoloredDegrees[adjacent]--;
+        }
+    }
+
+    private void unassign(int node, int color) {
+        colors[node] = Coloring.NO_COLOR;
+
+        for (int adjacent = nextSetBit(adjacency[node], 0); adjacent != NONE; adjacent = nextSetBit(adjacency[node], adjacent + 1)) {
+            if (--neighbourColorsCounts[adjacent][color] == 0) {
+                saturations[adjacent]--;
+            }
+
+            uncoloredDegrees[adjacent]++;
+        }
+    }
+
+    /*
+     *      Bitsets
+     */
+
+    private static int nextSetBit(long[] bits, int from) {
+        int word = from / 64;
+
+        if (word >= bits.length) {
+            return NONE;
+        }
+
+        long wordBits = bits[word] & (-1L << from);
+
+        while (wordBits == 0) {
+            if (++word == bits.length) {
+                return NONE;
+            }
+
+            wordBits = bits[word];
+        }
+
+        return 64 * word + Long.numberOfTrailingZeros(wordBits);
+    }
+
+    private static int cardinality(long[] bits) {
+        int cardinality = 0;
+
+        for (long word : bits) {
+            cardinality += Long.bitCount(word);
+        }
+
+        return cardinality;
+    }
+
+    private static int intersectionCardinality(long[] first, long[] second) {
+        int cardinality = 0;
+
+        for (int word = 0; word < first.length; word++) {
+            cardinality += Long.bitCount(first[word] & second[word]);
+        }
+
+        return cardinality;
+    }
+}
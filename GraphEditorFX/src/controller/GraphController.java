@@ -1,26 +1,31 @@
 package controller;
 
-import controller.dir.DirectionVerifier;
-import controller.dir.ConVerifier;
+import controller.dir.PlanarityVerifier;
+import controller.dir.TreeVerifier;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import model.*;
 
 import java.util.*;
 
-import static model.DistanceMatrix.INFINITY;
-
 
 public class GraphController {
     private Graph graph;
-    private DistanceMatrix distanceMatrix;
+    private DistanceOracle distanceOracle;
     private Matrix adjacencyMatrix;
+    private GraphMetrics metrics;
+    private Connectivity connectivity;
+    private StrongComponents strongComponents;
+    private LiveColorer liveColorer;
 
 
     public GraphController(Graph graph) {
         this.graph = graph;
-        distanceMatrix = new DistanceMatrix(graph);
+        distanceOracle = new DistanceOracle(graph);
         adjacencyMatrix = new Matrix(graph);
+        metrics = new GraphMetrics(graph);
+        connectivity = new Connectivity(graph);
+        strongComponents = new StrongComponents(graph);
     }
 
     public Graph getGraph() {
@@ -43,8 +48,25 @@ public class GraphController {
         return adjacencyMatrix;
     }
 
-    public DistanceMatrix getDistanceMatrix() {
-        return distanceMatrix;
+    public DistanceOracle getDistanceOracle() {
+        return distanceOracle;
+    }
+
+    // Kept up to date with every change once it's asked for
+    public LiveColorer getLiveColorer() {
+        if (liveColorer == null) {
+            liveColorer = new LiveColorer(graph);
+        }
+
+        return liveColorer;
+    }
+
+    public Connectivity getConnectivity() {
+        return connectivity;
+    }
+
+    public StrongComponents getStrongComponents() {
+        return strongComponents;
     }
 
     public void addNode(Node node) {
@@ -52,25 +74,31 @@ public class GraphController {
     }
 
     public void removeNode(Node node) {
-        graph.getNodes().remove(node);
+        Set<Arc> arcsToRemove = Collections.newSetFromMap(new IdentityHashMap<>());
+        arcsToRemove.addAll(graph.getArcStore().outgoingArcs(node));
+        arcsToRemove.addAll(graph.getArcStore().incomingArcs(node));
 
-        ObservableList<Arc> arcsToRemove = FXCollections.observableArrayList();
+        graph.getNodes().remove(node);
 
-        for (Arc arc : graph.getArcs()) {
-            if (arc.getBegin().equals(node) || arc.getEnd().equals(node)) {
-                arcsToRemove.add(arc);
-            }
+        if (!arcsToRemove.isEmpty()) {
+            graph.getArcs().removeAll(arcsToRemove);
         }
-
-        graph.getArcs().removeAll(arcsToRemove);
     }
 
     public void addArc(Arc arc) {
         graph.getArcs().add(arc);
     }
 
+    // Removes the arc given if the graph holds it, otherwise one of the arcs equal to it
     public void removeArc(Arc arc) {
-        graph.getArcs().remove(arc);
+        Arc storedArc = graph.getArcStore().containsInstance(arc) ? arc : graph.getArc(arc.getBegin(), arc.getEnd());
+
+        for (int arcIter = 0; storedArc != null && arcIter < graph.getArcs().size(); arcIter++) {
+            if (graph.getArcs().get(arcIter) == storedArc) {
+                graph.getArcs().remove(arcIter);
+                return;
+            }
+        }
     }
 
     /*
@@ -79,135 +107,129 @@ public class GraphController {
 
     // Calculation of a node degree
     public int degreeOf(Node node) {
-        int degree = 0;
+        GraphSnapshot snapshot = graph.snapshot();
+        int index = snapshot.indexOf(node);
 
-        for (Arc arc : graph.getArcs()) {
-            if (arc.getBegin().equals(node) || arc.getEnd().equals(node)) {
-                degree++;
-            }
+        // Node out of the graph has no arcs
+        if (index == -1) {
+            return 0;
         }
 
-        return degree;
-    }
-
-    // Calculation of the nodes' eccentricities
-    private Map<Node, Integer> eccentricities() {
-        Map<Node, Integer> eccentricities = new HashMap<>();
+        int degree = snapshot.outDegree(index) + snapshot.inDegree(index);
 
-        int eccentricity;
-
-        for (Node node : distanceMatrix.getDistancesMap().keySet()) {
-            eccentricity = 0;
-
-            for (Integer distance : distanceMatrix.getDistancesMap().get(node).values()) {
-                if ((distance > eccentricity) && (distance != INFINITY)) {
-                    eccentricity = distance;
-                }
+        // A loop is one arc though it's both outgoing and incoming
+        for (int arcIter = snapshot.outBegin(index); arcIter < snapshot.outEnd(index); arcIter++) {
+            if (snapshot.outTarget(arcIter) == index) {
+                degree--;
             }
-
-            eccentricities.put(node, eccentricity);
         }
 
-        return eccentricities;
+        return degree;
+    }
+
+    public GraphMetrics getMetrics() {
+        return metrics;
     }
 
     // Calculation of a graph diameter
     public int diameter() {
-        int diameter = 0;
-
-        for (Integer eccentricity : eccentricities().values()) {
-            if ((eccentricity > diameter) && (eccentricity != INFINITY)) {
-                diameter = eccentricity;
-            }
-        }
-
-        return diameter;
+        return metrics.diameter();
     }
 
     // Calculation of a graph radius
     public int radius() {
-        int radius = INFINITY;
+        return metrics.radius();
+    }
 
-        for (Integer eccentricity : eccentricities().values()) {
-            if ((eccentricity < radius) && (eccentricity != 0)) {
-                radius = eccentricity;
-            }
-        }
+    // Bounds of the diameter from a few searches, for graphs too big for the exact one
+    public MetricEstimate diameterEstimate() {
+        return metrics.diameterEstimate();
+    }
 
-        return radius == INFINITY ? 0 : radius;
+    // Bounds of the radius from a few searches, for graphs too big for the exact one
+    public MetricEstimate radiusEstimate() {
+        return metrics.radiusEstimate();
     }
 
     // Taking of graph centers
     public ObservableList<Node> centers() {
-        ObservableList<Node> centres = FXCollections.observableArrayList();
-        int radius = radius();
-
-        for (Node node : eccentricities().keySet()) {
-            if (eccentricities().get(node) == radius) {
-                centres.add(node);
-            }
-        }
+        return metrics.centers();
+    }
 
-        return centres;
+    // Taking of nodes the farthest from the others
+    public ObservableList<Node> periphery() {
+        return metrics.periphery();
     }
 
     // Check for graph planarity
     public boolean isPlanar() {
-        return new DirectionVerifier(graph).verify();
+        return new PlanarityVerifier(graph).verify();
+    }
+
+    // The check above with its result: the embedding of a planar graph, or the Kuratowski subgraph
+    // of a non-planar one on request
+    public PlanarityVerifier verifyPlanarity() {
+        PlanarityVerifier planarityVerifier = new PlanarityVerifier(graph);
+        planarityVerifier.verify();
+
+        return planarityVerifier;
     }
 
     // Check for graph complete
     public boolean isConnective() {
-        try {
-            if (!this.getNodes().isEmpty()) {
-                if (!this.getArcs().isEmpty()) {
-                    for (Node begin : this.getNodes()) {
-                        for (Node end : this.getNodes()) {
-                            Integer distance = this.getDistanceMatrix().getDistancesMap().get(begin).get(end);
-
-                            if (distance == DistanceMatrix.INFINITY) {
-                                return false;
-                            }
-                        }
-                    }
-                } else {
-                    return false;
-                }
-            } else {
-                return false;
-            }
-            return true;
-        }catch(NullPointerException ex){return false;}
+        return !graph.getNodes().isEmpty() && !graph.getArcs().isEmpty() && connectivity.isConnected();
+    }
+
+    // Check for a directed path from every node to every other one
+    public boolean isStronglyConnective() {
+        return !graph.getNodes().isEmpty() && !graph.getArcs().isEmpty() && strongComponents.isStronglyConnected();
+    }
+
+    public int componentsCount() {
+        return connectivity.componentsCount();
+    }
+
+    public int strongComponentsCount() {
+        return strongComponents.componentsCount();
     }
 
     // Check is graph a tree
     public boolean isTree() {
-        return !graph.containsLoop() && new ConVerifier(graph).verify();
+        return new TreeVerifier(graph).verify();
+    }
+
+    // The check above with the reason why not: the cycle found or the nodes out of reach
+    public TreeVerifier verifyTree() {
+        TreeVerifier treeVerifier = new TreeVerifier(graph);
+        treeVerifier.verify();
+
+        return treeVerifier;
     }
 
     /*
      *      Other algorithms
      */
 
-    // Finding all of hamiltonian cycles in the graph
-    public ObservableList<Path> eulerianCycles() {
-        ObservableList<Path> hamiltonianCycles = FXCollections.observableArrayList();
+    // Eulerian circuit of the graph, or trail when there's no circuit; the reason why not otherwise
+    public EulerianTrail eulerianTrail() {
+        EulerianTrail eulerianTrail = new EulerianTrail(graph);
+        eulerianTrail.find();
 
-        for (Node begin : graph.getNodes()) {
-            ObservableList<Path> cycles = findAllEulerianCyclesFrom(begin);
-            for (Path cycleFromThisNode : cycles) {
-                if (!hamiltonianCycles.contains(cycleFromThisNode)) {
-                    hamiltonianCycles.add(cycleFromThisNode);
-                }
-            }
-        }
+        return eulerianTrail;
+    }
 
-        return hamiltonianCycles;
+    // All Eulerian circuits, found one by one as they're asked for, and their count
+    public EulerianCircuits eulerianCircuits() {
+        return new EulerianCircuits(graph);
     }
 
     // Coloring of nodes
-    public Map<Node, String> colorizeNodes() {
-        return new Colorer(graph).colorizeNodes();
+    public Coloring colorizeNodes() {
+        return colorizeNodes(Colorer.Strategy.DSATUR);
+    }
+
+    public Coloring colorizeNodes(Colorer.Strategy strategy) {
+        return new Colorer(graph).colorize(strategy);
     }
 
     // Making all nodes adjacent to all nodes
@@ -219,131 +241,6 @@ public class GraphController {
      *      Utility
      */
 
-    // Finds all possible Hamiltonian cycles begins with the node given
-    private ObservableList<Path> findAllEulerianCyclesFrom(Node begin) {
-        Map<Arc, Boolean> visitedArcs = new HashMap<>();
-        ObservableList<Path> hamiltonianCyclesBeginsWithThisNode = FXCollections.observableArrayList();
-        Path trackingCycle = new Path();
-
-        for (Arc arc : graph.getArcs()) {
-            visitedArcs.put(arc, false);
-        }
-
-        dfsEulerianCycle(begin, trackingCycle, visitedArcs, hamiltonianCyclesBeginsWithThisNode,begin, 0, 0);
-
-        return hamiltonianCyclesBeginsWithThisNode;
-    }
-
-    private void dfsEulerianCycle(Node begin, Path trackingCycle,
-                                  Map<Arc, Boolean> visitedArcs,
-                                  ObservableList<Path> hamiltonianCyclesBeginsWithThisNode, Node first, int key, int dKey) {
-       // Node first = new Node();
-        System.out.println("Key "+ dKey);
-
-        //if((trackingCycle.getPath().size()+dKey)>graph.getArcs().size()) {return;}
-
-
-        if (key==1){
-            //System.out.println("first "+ first.getIdentifier()+ " Begin "+ begin.getIdentifier());
-
-            for (Arc arc : graph.getArcs()) {
-
-                if (arc.getBegin().equals(first) && arc.getEnd().equals(begin)) {
-                    visitedArcs.replace(arc, false);
-                    //System.out.println("Done");
-
-                }
-            }
-
-        }
-
-        System.out.println(trackingCycle.getPath().size() + "   dfdsfsdf  "+ graph.getArcs().size());
-        /*for (Node node: trackingCycle.getPath()){
-            System.out.println(node.getIdentifier());
-        }*/
-
-        System.out.println("   ");
-        for (Arc arc : graph.getArcs()) {
-
-            System.out.println(visitedArcs.get(arc));
-
-        }
-
-        System.out.println("   ");
-
-        if ((trackingCycle.getPath().size()+dKey) == (graph.getArcs().size()/*-dKey*/)) {
-            System.out.println("size "+(trackingCycle.getPath().size()+dKey));
-            if (graph.getArcs().contains(new Arc(trackingCycle.getPath().get(trackingCycle.getPath().size() - 1),
-                    trackingCycle.getPath().get(0)))) {
-
-                for (Arc arc : graph.getArcs()) {
-                    if (arc.getBegin().equals(trackingCycle.getPath().get(trackingCycle.getPath().size() - 1)) && arc.getEnd().equals(trackingCycle.getPath().get(0))) {
-
-                        if (!visitedArcs.get(arc)) {
-                            System.out.println("dnjnjnjn");
-                            Path hamiltonianCycle = new Path(trackingCycle);
-                            hamiltonianCycle.getPath().add(trackingCycle.getPath().get(0));
-
-                            for (Path cycle : hamiltonianCyclesBeginsWithThisNode) {
-                                if (hamiltonianCycle.getPath().contains(cycle.getPath())) {
-                                    return;
-                                }
-                            }
-
-                            hamiltonianCyclesBeginsWithThisNode.add(hamiltonianCycle);
-
-                            return;
-                        }
-                    }
-                }
-            }
-        }
-
-        for (Node adjacentNode : adjacencyMatrix.adjacentNodesOf(begin)) {
-          //  System.out.println(" Begin "+ begin.getIdentifier());
-            for (Arc arc : graph.getArcs()) {
-                if (arc.getBegin().equals(begin) && arc.getEnd().equals(adjacentNode)) {
-
-                    if (!visitedArcs.get(arc)) {
-                        if(!arc.isDirected()){
-                            for (Arc dirArc : graph.getArcs()) {
-                                if (dirArc.getBegin().equals(arc.getEnd()) && dirArc.getEnd().equals(arc.getBegin())) {
-                                    if (!visitedArcs.get(dirArc)) {
-                                        visitedArcs.replace(arc, true);
-                                        visitedArcs.replace(dirArc, true);
-                                        trackingCycle.getPath().add(adjacentNode);
-                                        //trackingCycle.getPath().add(adjacentNode);
-                                        //dKey++;
-
-                                        dfsEulerianCycle(adjacentNode, trackingCycle, visitedArcs, hamiltonianCyclesBeginsWithThisNode, first, ++key, ++dKey);
-
-                                        dKey--;
-                                        visitedArcs.replace(arc, false);
-                                        visitedArcs.replace(dirArc, false);
-                                        trackingCycle.getPath().remove(trackingCycle.getPath().size() - 1);
-                                        //trackingCycle.getPath().remove(trackingCycle.getPath().size() - 1);
-                                    }
-                                }
-                            }
-                        }
-                        else {
-                            visitedArcs.replace(arc, true);
-                            trackingCycle.getPath().add(adjacentNode);
-
-
-                            dfsEulerianCycle(adjacentNode, trackingCycle, visitedArcs, hamiltonianCyclesBeginsWithThisNode, first, ++key, dKey);
-
-                            visitedArcs.replace(arc, false);
-                            trackingCycle.getPath().remove(trackingCycle.getPath().size() - 1);
-
-                        }
-                    }
-                }
-            }
-        }
-
-    }
-
 
 
 
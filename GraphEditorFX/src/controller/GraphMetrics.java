@@ -0,0 +1,486 @@
+package controller;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import model.Graph;
+import model.GraphSnapshot;
+import model.Node;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static model.GraphSnapshot.UNREACHABLE;
+
+
+// Distance metrics of a graph served from one eccentricity vector, which is calculated
+// once per graph version: any change of nodes or arcs makes the next query recalculate it.
+// The eccentricity of a node is its largest finite distance to other nodes
+public class GraphMetrics {
+    private Graph graph;
+
+    // Snapshots are published last and read without the lock
+    private volatile GraphSnapshot snapshot;
+    private int[] eccentricities;
+
+    // Diameter and radius alone don't need every eccentricity, so they're kept apart
+    private volatile GraphSnapshot extremesSnapshot;
+    private int diameter;
+    private int radius;
+    private int searchesCount;
+
+    // Bounds from a few sweeps per component, for graphs too big for the above
+    private GraphSnapshot estimatesSnapshot;
+    private MetricEstimate diameterEstimate;
+    private MetricEstimate radiusEstimate;
+
+
+    public GraphMetrics(Graph graph) {
+        this.graph = graph;
+    }
+
+    public Graph getGraph() {
+        return graph;
+    }
+
+    public int eccentricityOf(Node node) {
+        update();
+        int index = snapshot.indexOf(node);
+
+        return index == -1 ? 0 : eccentricities[index];
+    }
+
+    public int diameter() {
+        updateExtremes();
+
+        return diameter;
+    }
+
+    // The least nonzero eccentricity, or 0 if every node has no way out
+    public int radius() {
+        updateExtremes();
+
+        return radius;
+    }
+
+    // Breadth-first searches the last diameter and radius calculation took
+    public int getSearchesCount() {
+        return searchesCount;
+    }
+
+    public MetricEstimate diameterEstimate() {
+        updateEstimates();
+
+        return diameterEstimate;
+    }
+
+    public MetricEstimate radiusEstimate() {
+        updateEstimates();
+
+        return radiusEstimate;
+    }
+
+    public ObservableList<Node> centers() {
+        return nodesWithEccentricity(radius());
+    }
+
+    public ObservableList<Node> periphery() {
+        return nodesWithEccentricity(diameter());
+    }
+
+    /*
+     *      Calculations
+     */
+
+    private void update() {
+        if (isCurrent(snapshot)) {
+            return;
+        }
+
+        GraphSnapshot newSnapshot = graph.snapshot();
+        publishEccentricities(newSnapshot, eccentricitiesOf(newSnapshot));
+    }
+
+    private void updateExtremes() {
+        if (isCurrent(extremesSnapshot)) {
+            return;
+        }
+
+        GraphSnapshot eccentricitiesSnapshot = snapshot;
+        int[] knownEccentricities = eccentricities;
+
+        if (isCurrent(eccentricitiesSnapshot)) {
+            publishExtremes(eccentricitiesSnapshot, knownEccentricities);
+        } else {
+            calculateExtremes(graph.snapshot());
+        }
+    }
+
+    // Works on a snapshot taken before and holds no lock while it searches, so it can run off the FX thread;
+    // diameter() and radius() at the version of the snapshot are served from it afterwards
+    public void calculateExtremes(GraphSnapshot newSnapshot) {
+        if (isSymmetric(newSnapshot)) {
+            int[] extremes = boundEccentricities(newSnapshot);
+
+            synchronized (this) {
+                if (isNewer(newSnapshot, extremesSnapshot)) {
+                    diameter = extremes[0];
+                    radius = extremes[1];
+                    searchesCount = extremes[2];
+                    extremesSnapshot = newSnapshot;
+                }
+            }
+
+            return;
+        }
+
+        int[] newEccentricities = eccentricitiesOf(newSnapshot);
+
+        publishEccentricities(newSnapshot, newEccentricities);
+        publishExtremes(newSnapshot, newEccentricities);
+    }
+
+    // A slower calculation of an older version never overwrites a newer one
+    private synchronized void publishEccentricities(GraphSnapshot newSnapshot, int[] newEccentricities) {
+        if (isNewer(newSnapshot, snapshot)) {
+            eccentricities = newEccentricities;
+            snapshot = newSnapshot;
+        }
+    }
+
+    private synchronized void publishExtremes(GraphSnapshot newSnapshot, int[] newEccentricities) {
+        if (!isNewer(newSnapshot, extremesSnapshot)) {
+            return;
+        }
+
+        diameter = 0;
+        radius = 0;
+
+        for (int eccentricity : newEccentricities) {
+            diameter = Math.max(diameter, eccentricity);
+
+            if (eccentricity != 0 && (radius == 0 || eccentricity < radius)) {
+                radius = eccentricity;
+            }
+        }
+
+        searchesCount = newEccentricities.length;
+        extremesSnapshot = newSnapshot;
+    }
+
+    // Bounding eccentricities (Takes and Kosters) for graphs where every arc has its reverse.
+    // A search from v gives for each w of its component max(ecc(v) - d(v, w), d(v, w)) <= ecc(w) <= ecc(v) + d(v, w);
+    // a node leaves the candidates once its bounds meet or it can change neither the diameter nor the radius.
+    // Sources alternate between the largest upper and the smallest lower bound.
+    // Gives the diameter, the radius and the number of searches it took
+    private static int[] boundEccentricities(GraphSnapshot snapshot) {
+        int nodesCount = snapshot.nodesCount();
+        int[] lower = new int[nodesCount];
+        int[] upper = new int[nodesCount];
+        int[] distances = new int[nodesCount];
+        int[] queue = new int[nodesCount];
+
+        int[] candidates = new int[nodesCount];
+        int candidatesCount = 0;
+
+        int[] componentsOrder = new int[nodesCount];
+        int[] componentsOffsets = weakComponents(snapshot, componentsOrder);
+
+        // Nodes without neighbours have eccentricity 0 and take no part in the radius
+        for (int component = 0; component + 1 < componentsOffsets.length; component++) {
+            int componentSize = componentsOffsets[component + 1] - componentsOffsets[component];
+
+            for (int orderIter = componentsOffsets[component]; orderIter < componentsOffsets[component + 1]; orderIter++) {
+                upper[componentsOrder[orderIter]] = componentSize - 1;
+                lower[componentsOrder[orderIter]] = componentSize > 1 ? 1 : 0;
+
+                if (componentSize > 1) {
+                    candidates[candidatesCount++] = componentsOrder[orderIter];
+                }
+            }
+        }
+
+        int diameterLower = 0;
+        int radiusUpper = Integer.MAX_VALUE;
+        boolean isUpperTurn = true;
+
+        int searchesCount = 0;
+        Arrays.fill(distances, UNREACHABLE);
+
+        while (candidatesCount != 0) {
+            int source = candidates[0];
+
+            for (int candidateIter = 1; candidateIter < candidatesCount; candidateIter++) {
+                int candidate = candidates[candidateIter];
+
+                if (isUpperTurn ? upper[candidate] > upper[source] : lower[candidate] < lower[source]) {
+                    source = candidate;
+                }
+            }
+            isUpperTurn = !isUpperTurn;
+
+            int reached = snapshot.localBreadthFirstSearch(source, distances, queue);
+            int eccentricity = distances[queue[reached - 1]];
+            searchesCount++;
+
+            for (int queueIter = 0; queueIter < reached; queueIter++) {
+                int node = queue[queueIter];
+                int distance = distances[node];
+
+                lower[node] = Math.max(lower[node], Math.max(eccentricity - distance, distance));
+                upper[node] = Math.min(upper[node], eccentricity + distance);
+            }
+            clearSearch(distances, queue, reached);
+
+            int keptCount = 0;
+
+            for (int candidateIter = 0; candidateIter < candidatesCount; candidateIter++) {
+                int candidate = candidates[candidateIter];
+
+                if (lower[candidate] == upper[candidate]) {
+                    diameterLower = Math.max(diameterLower, lower[candidate]);
+                    radiusUpper = Math.min(radiusUpper, upper[candidate]);
+                } else if (upper[candidate] > diameterLower || lower[candidate] < radiusUpper) {
+                    candidates[keptCount++] = candidate;
+                }
+            }
+
+            candidatesCount = keptCount;
+        }
+
+        return new int[]{diameterLower, radiusUpper == Integer.MAX_VALUE ? 0 : radiusUpper, searchesCount};
+    }
+
+    private synchronized void updateEstimates() {
+        if (isCurrent(estimatesSnapshot)) {
+            return;
+        }
+
+        GraphSnapshot newSnapshot = graph.snapshot();
+
+        // Nothing to guess if the exact values are already there
+        if (isCurrent(extremesSnapshot)) {
+            diameterEstimate = new MetricEstimate(diameter, diameter);
+            radiusEstimate = new MetricEstimate(radius, radius);
+        } else {
+            sweepComponents(newSnapshot);
+        }
+
+        estimatesSnapshot = newSnapshot;
+    }
+
+    // Four sweeps per component: from the node of the largest degree to its farthest node a1, from a1 to its
+    // farthest node b1, from the middle r2 of that path to a2, and from a2. Every eccentricity found bounds the
+    // diameter from below and the radius from above. With reverse arcs everywhere any eccentricity is at least half
+    // the diameter, which bounds the diameter from above and the radius from below; otherwise only the component size does
+    private void sweepComponents(GraphSnapshot snapshot) {
+        int nodesCount = snapshot.nodesCount();
+        int[] distances = new int[nodesCount];
+        int[] queue = new int[nodesCount];
+
+        int[] componentsOrder = new int[nodesCount];
+        int[] componentsOffsets = weakComponents(snapshot, componentsOrder);
+        boolean isSymmetric = isSymmetric(snapshot);
+
+        int diameterLower = 0;
+        int diameterUpper = 0;
+        int radiusLower = Integer.MAX_VALUE;
+        int radiusUpper = Integer.MAX_VALUE;
+
+        Arrays.fill(distances, UNREACHABLE);
+
+        for (int component = 0; component + 1 < componentsOffsets.length; component++) {
+            int componentSize = componentsOffsets[component + 1] - componentsOffsets[component];
+
+            if (componentSize == 1) {
+                continue;
+            }
+
+            int start = componentsOrder[componentsOffsets[component]];
+
+            for (int orderIter = componentsOffsets[component]; orderIter < componentsOffsets[component + 1]; orderIter++) {
+                if (snapshot.outDegree(componentsOrder[orderIter]) > snapshot.outDegree(start)) {
+                    start = componentsOrder[orderIter];
+                }
+            }
+
+            int componentDiameterLower = 0;
+            int componentRadiusUpper = Integer.MAX_VALUE;
+            int source = start;
+
+            for (int sweep = 0; sweep < 4; sweep++) {
+                int reached = snapshot.localBreadthFirstSearch(source, distances, queue);
+                int farthest = queue[reached - 1];
+                int eccentricity = distances[farthest];
+
+                componentDiameterLower = Math.max(componentDiameterLower, eccentricity);
+
+                if (eccentricity != 0) {
+                    componentRadiusUpper = Math.min(componentRadiusUpper, eccentricity);
+                }
+
+                // The sweep from a1 leads on to the middle of its longest path, the others to their farthest node
+                int next = sweep == 1 && isSymmetric ? middleOfPath(snapshot, distances, farthest) : farthest;
+
+                clearSearch(distances, queue, reached);
+                source = next;
+            }
+
+            int componentDiameterUpper = componentSize - 1;
+            int componentRadiusLower = 1;
+
+            if (isSymmetric) {
+                componentDiameterUpper = Math.min(componentDiameterUpper, 2 * componentRadiusUpper);
+                componentRadiusLower = (componentDiameterLower + 1) / 2;
+            }
+
+            if (componentRadiusUpper == Integer.MAX_VALUE) {
+                componentRadiusUpper = componentDiameterUpper;
+            }
+
+            diameterLower = Math.max(diameterLower, componentDiameterLower);
+            diameterUpper = Math.max(diameterUpper, componentDiameterUpper);
+            radiusLower = Math.min(radiusLower, componentRadiusLower);
+            radiusUpper = Math.min(radiusUpper, componentRadiusUpper);
+        }
+
+        diameterEstimate = new MetricEstimate(diameterLower, diameterUpper);
+        radiusEstimate = radiusUpper == Integer.MAX_VALUE
+                ? new MetricEstimate(0, 0)
+                : new MetricEstimate(radiusLower, radiusUpper);
+    }
+
+    /*
+     *      Utility
+     */
+
+    // Groups node indices by weakly connected component into 'order'.
+    // The c-th component takes positions [offsets[c], offsets[c + 1])
+    private static int[] weakComponents(GraphSnapshot snapshot, int[] order) {
+        int nodesCount = snapshot.nodesCount();
+        boolean[] isVisited = new boolean[nodesCount];
+        int[] offsets = new int[nodesCount + 1];
+        int componentsCount = 0;
+        int tail = 0;
+
+        for (int root = 0; root < nodesCount; root++) {
+            if (isVisited[root]) {
+                continue;
+            }
+
+            int head = tail;
+            isVisited[root] = true;
+            order[tail++] = root;
+
+            while (head != tail) {
+                int current = order[head++];
+
+                for (int arcIter = snapshot.outBegin(current); arcIter < snapshot.outEnd(current); arcIter++) {
+                    if (!isVisited[snapshot.outTarget(arcIter)]) {
+                        isVisited[snapshot.outTarget(arcIter)] = true;
+                        order[tail++] = snapshot.outTarget(arcIter);
+                    }
+                }
+
+                for (int arcIter = snapshot.inBegin(current); arcIter < snapshot.inEnd(current); arcIter++) {
+                    if (!isVisited[snapshot.inSource(arcIter)]) {
+                        isVisited[snapshot.inSource(arcIter)] = true;
+                        order[tail++] = snapshot.inSource(arcIter);
+                    }
+                }
+            }
+
+            offsets[++componentsCount] = tail;
+        }
+
+        return Arrays.copyOf(offsets, componentsCount + 1);
+    }
+
+    // Walks back from the end of a search along arcs one step closer to its source, half way.
+    // Taking the first and the last such arc by turns keeps the path off the border of grid-like graphs
+    private static int middleOfPath(GraphSnapshot snapshot, int[] distances, int end) {
+        int current = end;
+        int steps = distances[end] - distances[end] / 2;
+
+        for (int step = 0; step < steps; step++) {
+            int previous = current;
+
+            for (int arcIter = snapshot.inBegin(current); arcIter < snapshot.inEnd(current); arcIter++) {
+                if (distances[snapshot.inSource(arcIter)] == distances[current] - 1) {
+                    previous = snapshot.inSource(arcIter);
+
+                    if (step % 2 == 0) {
+                        break;
+                    }
+                }
+            }
+
+            current = previous;
+        }
+
+        return current;
+    }
+
+    private static void clearSearch(int[] distances, int[] queue, int reached) {
+        for (int queueIter = 0; queueIter < reached; queueIter++) {
+            distances[queue[queueIter]] = UNREACHABLE;
+        }
+    }
+
+    // Every target of a node's arcs has an arc back: the in-sources of the node are marked,
+    // then its out-targets are looked up among them, O(V + E) over the snapshot alone
+    private static boolean isSymmetric(GraphSnapshot snapshot) {
+        int[] marks = new int[snapshot.nodesCount()];
+
+        Arrays.fill(marks, -1);
+
+        for (int node = 0; node < snapshot.nodesCount(); node++) {
+            for (int arcIter = snapshot.inBegin(node); arcIter < snapshot.inEnd(node); arcIter++) {
+                marks[snapshot.inSource(arcIter)] = node;
+            }
+
+            for (int arcIter = snapshot.outBegin(node); arcIter < snapshot.outEnd(node); arcIter++) {
+                if (marks[snapshot.outTarget(arcIter)] != node) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private boolean isCurrent(GraphSnapshot calculated) {
+        return calculated != null && calculated.getVersion() == graph.getVersion();
+    }
+
+    private static boolean isNewer(GraphSnapshot newSnapshot, GraphSnapshot oldSnapshot) {
+        return oldSnapshot == null || newSnapshot.getVersion() > oldSnapshot.getVersion();
+    }
+
+    private static int[] eccentricitiesOf(GraphSnapshot snapshot) {
+        return IntStream.range(0, snapshot.nodesCount()).parallel()
+                .map(source -> eccentricityOf(snapshot, source))
+                .toArray();
+    }
+
+    // The last node a breadth-first search reaches is one of the farthest
+    private static int eccentricityOf(GraphSnapshot snapshot, int source) {
+        int[] distances = new int[snapshot.nodesCount()];
+        int[] queue = new int[snapshot.nodesCount()];
+        int reached = snapshot.breadthFirstSearch(source, distances, queue);
+
+        return distances[queue[reached - 1]];
+    }
+
+    private ObservableList<Node> nodesWithEccentricity(int eccentricity) {
+        ObservableList<Node> nodes = FXCollections.observableArrayList();
+        update();
+
+        for (int node = 0; node < eccentricities.length; node++) {
+            if (eccentricities[node] == eccentricity) {
+                nodes.add(snapshot.nodeAt(node));
+            }
+        }
+
+        return nodes;
+    }
+}
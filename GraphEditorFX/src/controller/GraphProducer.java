@@ -5,6 +5,7 @@ import javafx.collections.ObservableList;
 import javafx.util.Pair;
 import model.Arc;
 import model.Graph;
+import model.GraphSnapshot;
 import model.Node;
 
 import java.util.HashMap;
@@ -31,12 +32,19 @@ public class GraphProducer {
         Graph product = new Graph();
         initNodesMatching(product);
 
+        GraphSnapshot g = gGraph.snapshot();
+        GraphSnapshot h = hGraph.snapshot();
+
         for (Pair<Node, Node> uv : nodePairs) {
-            for (Pair<Node, Node> u1v1 : nodePairs) {
-                if ((uv.getKey().equals(u1v1.getKey()) && (hGraph.getArc(uv.getValue(), u1v1.getValue()) != null))
-                        || (uv.getValue().equals(u1v1.getValue()) && (gGraph.getArc(uv.getKey(), u1v1.getKey()) != null))) {
-                    product.getArcs().add(new Arc(nodePairsMatching.get(uv), nodePairsMatching.get(u1v1)));
-                }
+            int u = g.indexOf(uv.getKey());
+            int v = h.indexOf(uv.getValue());
+
+            for (int arcIter = h.outBegin(v); arcIter < h.outEnd(v); arcIter++) {
+                addArcOnce(product, uv, new Pair<>(uv.getKey(), h.nodeAt(h.outTarget(arcIter))));
+            }
+
+            for (int arcIter = g.outBegin(u); arcIter < g.outEnd(u); arcIter++) {
+                addArcOnce(product, uv, new Pair<>(g.nodeAt(g.outTarget(arcIter)), uv.getValue()));
             }
         }
 
@@ -47,15 +55,27 @@ public class GraphProducer {
         Graph product = new Graph();
         initNodesMatching(product);
 
+        GraphSnapshot g = gGraph.snapshot();
+        GraphSnapshot h = hGraph.snapshot();
 
         for (Pair<Node, Node> uv : nodePairs) {
-            for (Pair<Node, Node> u1v1 : nodePairs) {
-                if ((gGraph.getArc(uv.getKey(), u1v1.getKey()) != null)
-                        && (hGraph.getArc(uv.getValue(), u1v1.getValue()) != null)) {
+            int u = g.indexOf(uv.getKey());
+            int v = h.indexOf(uv.getValue());
+
+            for (int gArcIter = g.outBegin(u); gArcIter < g.outEnd(u); gArcIter++) {
+                for (int hArcIter = h.outBegin(v); hArcIter < h.outEnd(v); hArcIter++) {
+                    Pair<Node, Node> u1v1 = new Pair<>(g.nodeAt(g.outTarget(gArcIter)), h.nodeAt(h.outTarget(hArcIter)));
 
-                    if (product.getArc(nodePairsMatching.get(u1v1), nodePairsMatching.get(uv)) == null) {
-                        product.getArcs().add(new Arc(nodePairsMatching.get(uv), nodePairsMatching.get(u1v1)));
+                    // Of two mutually reverse arcs only the one going from the earlier pair is kept
+                    boolean isReverseToo = gGraph.containsArc(u1v1.getKey(), uv.getKey())
+                            && hGraph.containsArc(u1v1.getValue(), uv.getValue());
+
+                    if (isReverseToo && (product.indexOf(nodePairsMatching.get(u1v1))
+                            < product.indexOf(nodePairsMatching.get(uv)))) {
+                        continue;
                     }
+
+                    addArcOnce(product, uv, u1v1);
                 }
             }
         }
@@ -81,4 +101,13 @@ public class GraphProducer {
             }
         }
     }
+
+    private void addArcOnce(Graph product, Pair<Node, Node> uv, Pair<Node, Node> u1v1) {
+        Node begin = nodePairsMatching.get(uv);
+        Node end = nodePairsMatching.get(u1v1);
+
+        if (!product.containsArc(begin, end)) {
+            product.getArcs().add(new Arc(begin, end));
+        }
+    }
 }
@@ -0,0 +1,244 @@
+package controller;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableMap;
+import model.Arc;
+import model.Graph;
+import model.GraphSnapshot;
+import model.Node;
+
+import java.util.*;
+
+
+// Coloring kept proper while the graph is edited, with arc directions and loops ignored.
+// It starts from DSATUR, then every change is repaired around the nodes it touches: an added
+// arc between nodes of one color recolors the end that gets the lesser free color, a removed
+// arc or node lets its ends take lesser colors. Colors stay numbered without gaps: a color that
+// is left unused is taken over by the last one. Only changed colors go into the observable map
+public class LiveColorer {
+    private Graph graph;
+
+    private ObservableMap<Node, Integer> colors;
+    private List<Set<Node>> colorClasses;
+
+
+    public LiveColorer(Graph graph) {
+        this.graph = graph;
+
+        colors = FXCollections.observableHashMap();
+        colorClasses = new ArrayList<>();
+        configureLiveColorer();
+    }
+
+    public Graph getGraph() {
+        return graph;
+    }
+
+    public ObservableMap<Node, Integer> getColors() {
+        return FXCollections.unmodifiableObservableMap(colors);
+    }
+
+    public int colorOf(Node node) {
+        Integer color = colors.get(node);
+
+        return color == null ? Coloring.NO_COLOR : color;
+    }
+
+    public int colorsCount() {
+        return colorClasses.size();
+    }
+
+    // DSATUR over the whole graph again, e.g. when local repairs have left too many colors
+    public void recolor() {
+        Coloring coloring = new Colorer(graph).colorize(Colorer.Strategy.DSATUR);
+        GraphSnapshot snapshot = coloring.getSnapshot();
+
+        colorClasses.clear();
+        colors.keySet().removeIf(node -> snapshot.indexOf(node) == -1);
+
+        for (int color = 0; color < coloring.colorsCount(); color++) {
+            colorClasses.add(Collections.newSetFromMap(new IdentityHashMap<>()));
+        }
+
+        for (int node = 0; node < snapshot.nodesCount(); node++) {
+            int color = coloring.getColors()[node];
+
+            colorClasses.get(color).add(snapshot.nodeAt(node));
+
+            if (colorOf(snapshot.nodeAt(node)) != color) {
+                colors.put(snapshot.nodeAt(node), color);
+            }
+        }
+    }
+
+    /*
+     *      Configs
+     */
+
+    private void configureLiveColorer() {
+        recolor();
+
+        graph.getArcs().addListener((ListChangeListener<Arc>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) {
+                    continue;
+                }
+
+                for (Arc arc : change.getRemoved()) {
+                    removeArc(arc);
+                }
+
+                for (Arc arc : change.getAddedSubList()) {
+                    addArc(arc);
+                }
+            }
+        });
+
+        graph.getNodes().addListener((ListChangeListener<Node>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) {
+                    continue;
+                }
+
+                for (Node node : change.getRemoved()) {
+                    removeNode(node);
+                }
+
+                for (Node node : change.getAddedSubList()) {
+                    setColor(node, leastFreeColor(node));
+                }
+            }
+        });
+    }
+
+    /*
+     *      Repairs
+     */
+
+    private void addArc(Arc arc) {
+        Node begin = arc.getBegin();
+        Node end = arc.getEnd();
+
+        if (begin == end || colorOf(begin) == Coloring.NO_COLOR || colorOf(begin) != colorOf(end)) {
+            return;
+        }
+
+        int beginColor = leastFreeColor(begin);
+        int endColor = leastFreeColor(end);
+
+        if (beginColor <= endColor) {
+            setColor(begin, beginColor);
+        } else {
+            setColor(end, endColor);
+        }
+    }
+
+    private void removeArc(Arc arc) {
+        for (Node node : new Node[]{arc.getBegin(), arc.getEnd()}) {
+            lowerColor(node);
+        }
+    }
+
+    private void removeNode(Node node) {
+        int color = colorOf(node);
+
+        if (color == Coloring.NO_COLOR) {
+            return;
+        }
+
+        colorClasses.get(color).remove(node);
+        colors.remove(node);
+        compact(color);
+
+        // Arcs of the node may be gone before it
+        for (Node adjacent : neighboursOf(node)) {
+            lowerColor(adjacent);
+        }
+    }
+
+    private void lowerColor(Node node) {
+        if (colorOf(node) == Coloring.NO_COLOR) {
+            return;
+        }
+
+        int color = leastFreeColor(node);
+
+        if (color < colorOf(node)) {
+            setColor(node, color);
+        }
+    }
+
+    // The least color none of the node's neighbours has, the node's own one aside
+    private int leastFreeColor(Node node) {
+        BitSet takenColors = new BitSet();
+
+        for (Node adjacent : neighboursOf(node)) {
+            int color = colorOf(adjacent);
+
+            if (adjacent != node && color != Coloring.NO_COLOR) {
+                takenColors.set(color);
+            }
+        }
+
+        return takenColors.nextClearBit(0);
+    }
+
+    private void setColor(Node node, int color) {
+        int oldColor = colorOf(node);
+
+        if (oldColor == color) {
+            return;
+        }
+
+        if (oldColor != Coloring.NO_COLOR) {
+            colorClasses.get(oldColor).remove(node);
+        }
+
+        while (colorClasses.size() <= color) {
+            colorClasses.add(Collections.newSetFromMap(new IdentityHashMap<>()));
+        }
+
+        colorClasses.get(color).add(node);
+        colors.put(node, color);
+
+        if (oldColor != Coloring.NO_COLOR) {
+            compact(oldColor);
+        }
+    }
+
+    // The last color takes the place of an emptied one; its nodes are never adjacent to each
+    // other, so the coloring stays proper
+    private void compact(int color) {
+        if (!colorClasses.get(color).isEmpty()) {
+            return;
+        }
+
+        int lastColor = colorClasses.size() - 1;
+        Set<Node> lastClass = colorClasses.remove(lastColor);
+
+        if (color == lastColor) {
+            return;
+        }
+
+        colorClasses.set(color, lastClass);
+
+        for (Node node : lastClass) {
+            colors.put(node, color);
+        }
+    }
+
+    private List<Node> neighboursOf(Node node) {
+        List<Node> neighbours = new ArrayList<>();
+
+        for (Arc arc : graph.getArcStore().outgoingArcs(node)) {
+            neighbours.add(arc.getEnd());
+        }
+
+        for (Arc arc : graph.getArcStore().incomingArcs(node)) {
+            neighbours.add(arc.getBegin());
+        }
+
+        return neighbours;
+    }
+}
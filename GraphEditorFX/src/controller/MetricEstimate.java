@@ -0,0 +1,31 @@
+package controller;
+
+
+// A metric known to lie in [lower, upper]; it's exact when both bounds meet
+public class MetricEstimate {
+    private int lower;
+    private int upper;
+
+
+    public MetricEstimate(int lower, int upper) {
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    public int getLower() {
+        return lower;
+    }
+
+    public int getUpper() {
+        return upper;
+    }
+
+    public boolean isExact() {
+        return lower == upper;
+    }
+
+    @Override
+    public String toString() {
+        return isExact() ? String.valueOf(lower) : "~" + lower + " [" + lower + ", " + upper + "]";
+    }
+}
@@ -0,0 +1,609 @@
+package controller;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+
+// Straight-line drawing of a planar graph on an integer grid without crossings, made from the
+// clockwise order of neighbours around every node (see PlanarityVerifier). Every component is
+// made biconnected and triangulated inside its largest face, its nodes are put in a canonical
+// order and then placed one by one by the shift method of de Fraysseix, Pach and Pollack with
+// offsets kept relative to tree parents, as Chrobak and Payne do it, so all of it takes O(V).
+// A component of n nodes fits into a (2n - 4) × (n - 2) box, components go from left to right
+public class PlanarLayout {
+    private static final int NONE = -1;
+    private static final int COMPONENTS_GAP = 2;
+
+    private int nodesCount;
+
+    // Embedding by half-edges, 2e and 2e + 1 are the two sides of the edge e
+    private int[] heads;
+    private int[] clockwise;
+    private int[] counterClockwise;
+    private int[] firstHalfEdges;
+    private boolean[] isVisited;
+    private int halfEdgesCount;
+    private Map<Long, Integer> edges;
+
+    // Canonical order state of all components at once, as they don't share nodes. Neighbours
+    // on the outer face are kept on the way from the second node round to the first one and back
+    private int[] towardsFirst;
+    private int[] towardsSecond;
+    private int[] chordsCounts;
+    private boolean[] isRemoved;
+    private boolean[] isReady;
+    private int[] newFaceStamps;
+
+    private int[] xs;
+    private int[] ys;
+    private int width;
+    private int height;
+
+
+    public PlanarLayout(int[][] rotations) {
+        nodesCount = rotations.length;
+
+        configureEmbedding(rotations);
+        layOut();
+    }
+
+    // Grid position of the node by its index in the snapshot the rotations came from
+    public int xOf(int node) {
+        return xs[node];
+    }
+
+    public int yOf(int node) {
+        return ys[node];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /*
+     *      Configs
+     */
+
+    private void configureEmbedding(int[][] rotations) {
+        int degreesSum = 0;
+
+        for (int[] rotation : rotations) {
+            degreesSum += rotation.length;
+        }
+
+        // Triangulation brings the edges up to 3V - 6
+        int capacity = Math.max(degreesSum, 6 * nodesCount);
+
+        heads = new int[capacity];
+        clockwise = new int[capacity];
+        counterClockwise = new int[capacity];
+        isVisited = new boolean[capacity];
+        firstHalfEdges = new int[nodesCount];
+        edges = new HashMap<>();
+        Arrays.fill(firstHalfEdges, NONE);
+
+        for (int node = 0; node < nodesCount; node++) {
+            int[] rotation = rotations[node];
+            int previous = NONE;
+
+            for (int adjacent : rotation) {
+                Integer edge = edges.get(pairOf(node, adjacent));
+
+                if (edge == null) {
+                    edge = halfEdgesCount / 2;
+                    edges.put(pairOf(node, adjacent), edge);
+                    heads[halfEdgesCount++] = adjacent;
+                    heads[halfEdgesCount++] = node;
+                }
+
+                int halfEdge = node < adjacent ? 2 * edge : 2 * edge + 1;
+
+                if (previous == NONE) {
+                    firstHalfEdges[node] = halfEdge;
+                } else {
+                    clockwise[previous] = halfEdge;
+                    counterClockwise[halfEdge] = previous;
+                }
+
+                previous = halfEdge;
+            }
+
+            if (previous != NONE) {
+                clockwise[previous] = firstHalfEdges[node];
+                counterClockwise[firstHalfEdges[node]] = previous;
+            }
+        }
+    }
+
+    /*
+     *      Layout
+     */
+
+    private void layOut() {
+        xs = new int[nodesCount];
+        ys = new int[nodesCount];
+
+        int[] componentIds = new int[nodesCount];
+        int[] componentOffsets = new int[nodesCount + 1];
+        int[] componentNodes = new int[nodesCount];
+        int componentsCount = findComponents(componentIds, componentOffsets, componentNodes);
+
+        // Faces are found before any of them is triangulated, the largest one of a component stays outer
+        int originalHalfEdgesCount = halfEdgesCount;
+        int[] faceHalfEdges = new int[originalHalfEdgesCount];
+        int[] faceSizes = new int[originalHalfEdgesCount];
+        int facesCount = 0;
+        int[] outerFaces = new int[componentsCount];
+        int[] faceStamps = new int[nodesCount];
+
+        Arrays.fill(outerFaces, NONE);
+
+        for (int halfEdge = 0; halfEdge < originalHalfEdgesCount; halfEdge++) {
+            if (isVisited[halfEdge]) {
+                continue;
+            }
+
+            faceHalfEdges[facesCount] = halfEdge;
+            faceSizes[facesCount] = makeBiconnected(halfEdge, faceStamps, facesCount + 1);
+
+            int component = componentIds[heads[halfEdge]];
+
+            if (outerFaces[component] == NONE || faceSizes[facesCount] > faceSizes[outerFaces[component]]) {
+                outerFaces[component] = facesCount;
+            }
+
+            facesCount++;
+        }
+
+        for (int face = 0; face < facesCount; face++) {
+            if (outerFaces[componentIds[heads[faceHalfEdges[face]]]] != face) {
+                triangulateFace(faceHalfEdges[face]);
+            }
+        }
+
+        towardsFirst = new int[nodesCount];
+        towardsSecond = new int[nodesCount];
+        chordsCounts = new int[nodesCount];
+        isRemoved = new boolean[nodesCount];
+        isReady = new boolean[nodesCount];
+        newFaceStamps = new int[nodesCount];
+        Arrays.fill(towardsFirst, NONE);
+        Arrays.fill(towardsSecond, NONE);
+
+        int[] deltaXs = new int[nodesCount];
+        int[] leftChildren = new int[nodesCount];
+        int[] rightChildren = new int[nodesCount];
+        int offset = 0;
+
+        for (int component = 0; component < componentsCount; component++) {
+            int componentBegin = componentOffsets[component];
+            int size = componentOffsets[component + 1] - componentBegin;
+
+            if (size < 3) {
+                for (int nodeIter = 0; nodeIter < size; nodeIter++) {
+                    xs[componentNodes[componentBegin + nodeIter]] = 2 * nodeIter;
+                }
+            } else {
+                int outerHalfEdge = faceHalfEdges[outerFaces[component]];
+                int[] outerFace = faceNodes(outerHalfEdge, faceSizes[outerFaces[component]]);
+                int[] order = new int[size];
+                int[] contourBegins = new int[size];
+                int[] contourEnds = new int[size];
+                int[] contours = new int[3 * size];
+
+                orderCanonically(outerFace, order, contourBegins, contourEnds, contours);
+                shift(order, contourBegins, contourEnds, contours, deltaXs, leftChildren, rightChildren);
+            }
+
+            int componentWidth = 0;
+
+            for (int nodeIter = componentBegin; nodeIter < componentOffsets[component + 1]; nodeIter++) {
+                int node = componentNodes[nodeIter];
+
+                componentWidth = Math.max(componentWidth, xs[node]);
+                height = Math.max(height, ys[node]);
+                xs[node] += offset;
+            }
+
+            width = offset + componentWidth;
+            offset += componentWidth + COMPONENTS_GAP;
+        }
+    }
+
+    private int findComponents(int[] componentIds, int[] componentOffsets, int[] componentNodes) {
+        int componentsCount = 0;
+        int nodesFound = 0;
+
+        Arrays.fill(componentIds, NONE);
+
+        for (int root = 0; root < nodesCount; root++) {
+            if (componentIds[root] != NONE) {
+                continue;
+            }
+
+            // Nodes of a component are laid one after another, the queue is the list itself
+            int queueHead = nodesFound;
+            componentIds[root] = componentsCount;
+            componentNodes[nodesFound++] = root;
+
+            while (queueHead < nodesFound) {
+                int node = componentNodes[queueHead++];
+                int halfEdge = firstHalfEdges[node];
+
+                for (int degree = 0; halfEdge != NONE && (degree == 0 || halfEdge != firstHalfEdges[node]); degree++) {
+                    if (componentIds[heads[halfEdge]] == NONE) {
+                        componentIds[heads[halfEdge]] = componentsCount;
+                        componentNodes[nodesFound++] = heads[halfEdge];
+                    }
+
+                    halfEdge = clockwise[halfEdge];
+                }
+            }
+
+            componentOffsets[++componentsCount] = nodesFound;
+        }
+
+        return componentsCount;
+    }
+
+    /*
+     *      Triangulation
+     */
+
+    // Walks the face left of the half-edge; whenever a node comes up the second time, its two
+    // neighbours on the walk get an edge, so that the face, and the graph, become biconnected.
+    // Returns the size of the face left
+    private int makeBiconnected(int startHalfEdge, int[] faceStamps, int faceStamp) {
+        int current = startHalfEdge;
+        int following = nextOnFace(current);
+        int faceSize = 1;
+
+        isVisited[startHalfEdge] = true;
+        faceStamps[tailOf(startHalfEdge)] = faceStamp;
+
+        while (following != startHalfEdge) {
+            int middle = heads[current];
+
+            if (faceStamps[middle] == faceStamp) {
+                int added = addEdge(current, following ^ 1);
+
+                isVisited[following] = true;
+                isVisited[added ^ 1] = true;
+                current = added;
+            } else {
+                faceStamps[middle] = faceStamp;
+                faceSize++;
+                current = following;
+            }
+
+            following = nextOnFace(current);
+            isVisited[current] = true;
+        }
+
+        return faceSize;
+    }
+
+    // Fan of chords from the face's nodes, moving on whenever the chord would repeat an edge
+    private void triangulateFace(int startHalfEdge) {
+        int first = startHalfEdge;
+        int second = nextOnFace(first);
+        int third = nextOnFace(second);
+
+        if (tailOf(first) == heads[first] || tailOf(first) == heads[second]) {
+            return;
+        }
+
+        while (tailOf(first) != heads[third]) {
+            if (edges.containsKey(pairOf(tailOf(first), heads[second]))) {
+                first = second;
+            } else {
+                first = addEdge(first, second ^ 1);
+            }
+
+            second = third;
+            third = nextOnFace(second);
+        }
+    }
+
+    // Edge from the tail of the first half-edge to the tail of the second one, put clockwise
+    // next to the first and counterclockwise next to the second. Returns its half-edge from the first tail
+    private int addEdge(int clockwiseOf, int counterClockwiseOf) {
+        if (halfEdgesCount == heads.length) {
+            heads = Arrays.copyOf(heads, 2 * halfEdgesCount);
+            clockwise = Arrays.copyOf(clockwise, 2 * halfEdgesCount);
+            counterClockwise = Arrays.copyOf(counterClockwise, 2 * halfEdgesCount);
+            isVisited = Arrays.copyOf(isVisited, 2 * halfEdgesCount);
+        }
+
+        int begin = tailOf(clockwiseOf);
+        int end = tailOf(counterClockwiseOf);
+        int halfEdge = halfEdgesCount;
+
+        edges.put(pairOf(begin, end), halfEdge / 2);
+        heads[halfEdgesCount++] = end;
+        heads[halfEdgesCount++] = begin;
+
+        insertClockwise(halfEdge, clockwiseOf);
+        insertClockwise(halfEdge ^ 1, counterClockwise[counterClockwiseOf]);
+
+        return halfEdge;
+    }
+
+    private void insertClockwise(int halfEdge, int reference) {
+        int next = clockwise[reference];
+
+        clockwise[reference] = halfEdge;
+        counterClockwise[halfEdge] = reference;
+        clockwise[halfEdge] = next;
+        counterClockwise[next] = halfEdge;
+    }
+
+    /*
+     *      Canonical order
+     */
+
+    // Nodes are peeled off the outer face from the last one to the third; every node is taken
+    // when it has no chord to the rest of the face. Its neighbours that come out to the face
+    // form its contour: from the left neighbour on the face to the right one
+    private void orderCanonically(int[] outerFace, int[] order, int[] contourBegins, int[] contourEnds, int[] contours) {
+        int size = order.length;
+        int firstNode = outerFace[0];
+        int secondNode = outerFace[1];
+
+        int[] ready = new int[4 * size];
+        int readyCount = 0;
+
+        for (int faceIter = 1; faceIter < outerFace.length; faceIter++) {
+            towardsFirst[outerFace[faceIter]] = outerFace[(faceIter + 1) % outerFace.length];
+            towardsSecond[outerFace[(faceIter + 1) % outerFace.length]] = outerFace[faceIter];
+        }
+
+        for (int node : outerFace) {
+            for (int halfEdge : halfEdgesOf(node)) {
+                int adjacent = heads[halfEdge];
+
+                if (isOnFace(adjacent, firstNode)
+                        && towardsFirst[node] != adjacent && towardsSecond[node] != adjacent) {
+                    chordsCounts[node]++;
+                }
+            }
+        }
+
+        for (int node : outerFace) {
+            if (node != firstNode && node != secondNode && chordsCounts[node] == 0) {
+                isReady[node] = true;
+                ready[readyCount++] = node;
+            }
+        }
+
+        order[0] = firstNode;
+        order[1] = secondNode;
+        int contoursCount = 0;
+
+        for (int position = size - 1; position > 1; position--) {
+            while (isRemoved[ready[readyCount - 1]] || !isReady[ready[readyCount - 1]]) {
+                readyCount--;
+            }
+
+            int node = ready[--readyCount];
+            isRemoved[node] = true;
+
+            // Its only neighbours on the face are the ones next to it there
+            int leftHalfEdge = NONE;
+            int right = NONE;
+
+            for (int halfEdge : halfEdgesOf(node)) {
+                int adjacent = heads[halfEdge];
+
+                if (!isOnFace(adjacent, firstNode)) {
+                    continue;
+                }
+
+                if (adjacent == firstNode || (adjacent != secondNode && towardsSecond[adjacent] == node)) {
+                    leftHalfEdge = halfEdge;
+                } else {
+                    right = adjacent;
+                }
+            }
+
+            int contourBegin = contoursCount;
+            int halfEdge = leftHalfEdge;
+            contours[contoursCount++] = heads[halfEdge];
+
+            while (heads[halfEdge] != right) {
+                int next = counterClockwise[halfEdge];
+
+                towardsSecond[heads[halfEdge]] = heads[next];
+                towardsFirst[heads[next]] = heads[halfEdge];
+                contours[contoursCount++] = heads[next];
+                halfEdge = next;
+            }
+
+            int left = contours[contourBegin];
+
+            if (contoursCount - contourBegin == 2) {
+                // The chord between the neighbours is on the face now
+                for (int end : new int[]{left, right}) {
+                    if (--chordsCounts[end] == 0 && end != firstNode && end != secondNode) {
+                        isReady[end] = true;
+                        ready[readyCount++] = end;
+                    }
+                }
+            } else {
+                for (int contourIter = contourBegin + 1; contourIter < contoursCount - 1; contourIter++) {
+                    newFaceStamps[contours[contourIter]] = position;
+                }
+
+                for (int contourIter = contourBegin + 1; contourIter < contoursCount - 1; contourIter++) {
+                    int contourNode = contours[contourIter];
+
+                    isReady[contourNode] = true;
+                    ready[readyCount++] = contourNode;
+
+                    for (int contourHalfEdge : halfEdgesOf(contourNode)) {
+                        int adjacent = heads[contourHalfEdge];
+
+                        if (!isOnFace(adjacent, firstNode)
+                                || towardsFirst[contourNode] == adjacent || towardsSecond[contourNode] == adjacent) {
+                            continue;
+                        }
+
+                        chordsCounts[contourNode]++;
+                        isReady[contourNode] = false;
+
+                        if (newFaceStamps[adjacent] != position) {
+                            chordsCounts[adjacent]++;
+                            isReady[adjacent] = false;
+                        }
+                    }
+                }
+            }
+
+            order[position] = node;
+            contourBegins[position] = contourBegin;
+            contourEnds[position] = contoursCount;
+        }
+    }
+
+    private boolean isOnFace(int node, int firstNode) {
+        return !isRemoved[node] && (towardsFirst[node] != NONE || node == firstNode);
+    }
+
+    /*
+     *      Shift method
+     */
+
+    // Every node keeps its x offset from its parent in a binary tree over the contour: the left
+    // child is the node covered first, the right one is the next node on the contour. Putting a
+    // node over its contour shifts the covered part by one and the rest by two, which is done by
+    // changing a couple of offsets; the absolute x comes out of one pass over the tree at the end
+    private void shift(int[] order, int[] contourBegins, int[] contourEnds, int[] contours,
+                       int[] deltaXs, int[] leftChildren, int[] rightChildren) {
+        int firstNode = order[0];
+        int secondNode = order[1];
+        int thirdNode = order[2];
+
+        for (int node : order) {
+            leftChildren[node] = NONE;
+            rightChildren[node] = NONE;
+        }
+
+        deltaXs[firstNode] = 0;
+        ys[firstNode] = 0;
+        rightChildren[firstNode] = thirdNode;
+
+        deltaXs[secondNode] = 1;
+        ys[secondNode] = 0;
+
+        deltaXs[thirdNode] = 1;
+        ys[thirdNode] = 1;
+        rightChildren[thirdNode] = secondNode;
+
+        for (int position = 3; position < order.length; position++) {
+            int node = order[position];
+            int contourBegin = contourBegins[position];
+            int contourEnd = contourEnds[position];
+            int left = contours[contourBegin];
+            int afterLeft = contours[contourBegin + 1];
+            int right = contours[contourEnd - 1];
+            int beforeRight = contours[contourEnd - 2];
+            boolean isCovering = contourEnd - contourBegin > 2;
+
+            deltaXs[afterLeft]++;
+            deltaXs[right]++;
+
+            int leftToRight = 0;
+
+            for (int contourIter = contourBegin + 1; contourIter < contourEnd; contourIter++) {
+                leftToRight += deltaXs[contours[contourIter]];
+            }
+
+            // The node goes where the lines of slope 1 and -1 from the contour's ends meet
+            deltaXs[node] = Math.floorDiv(-ys[left] + leftToRight + ys[right], 2);
+            ys[node] = Math.floorDiv(ys[left] + leftToRight + ys[right], 2);
+            deltaXs[right] = leftToRight - deltaXs[node];
+
+            if (isCovering) {
+                deltaXs[afterLeft] -= deltaXs[node];
+            }
+
+            rightChildren[left] = node;
+            rightChildren[node] = right;
+
+            if (isCovering) {
+                leftChildren[node] = afterLeft;
+                rightChildren[beforeRight] = NONE;
+            }
+        }
+
+        int[] stack = new int[order.length];
+        int stackSize = 0;
+
+        xs[firstNode] = 0;
+        stack[stackSize++] = firstNode;
+
+        while (stackSize != 0) {
+            int parent = stack[--stackSize];
+
+            for (int child : new int[]{leftChildren[parent], rightChildren[parent]}) {
+                if (child != NONE) {
+                    xs[child] = xs[parent] + deltaXs[child];
+                    stack[stackSize++] = child;
+                }
+            }
+        }
+    }
+
+    /*
+     *      Utility
+     */
+
+    // The next half-edge of the face on the left: around the head, counterclockwise from the way back
+    private int nextOnFace(int halfEdge) {
+        return counterClockwise[halfEdge ^ 1];
+    }
+
+    private int tailOf(int halfEdge) {
+        return heads[halfEdge ^ 1];
+    }
+
+    private int[] faceNodes(int startHalfEdge, int faceSize) {
+        int[] nodes = new int[faceSize];
+        int halfEdge = startHalfEdge;
+
+        for (int nodeIter = 0; nodeIter < faceSize; nodeIter++) {
+            nodes[nodeIter] = tailOf(halfEdge);
+            halfEdge = nextOnFace(halfEdge);
+        }
+
+        return nodes;
+    }
+
+    private int[] halfEdgesOf(int node) {
+        int degree = 0;
+        int halfEdge = firstHalfEdges[node];
+
+        do {
+            degree++;
+            halfEdge = clockwise[halfEdge];
+        } while (halfEdge != firstHalfEdges[node]);
+
+        int[] halfEdges = new int[degree];
+
+        for (int edgeIter = 0; edgeIter < degree; edgeIter++) {
+            halfEdges[edgeIter] = halfEdge;
+            halfEdge = clockwise[halfEdge];
+        }
+
+        return halfEdges;
+    }
+
+    private long pairOf(int first, int second) {
+        return (long) Math.min(first, second) * nodesCount + Math.max(first, second);
+    }
+}
@@ -0,0 +1,238 @@
+package controller;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import model.Graph;
+import model.GraphSnapshot;
+import model.Node;
+
+import java.util.Arrays;
+
+
+// Strongly connected components found by Tarjan's algorithm over the graph snapshot, once per
+// graph version. The search keeps its own stack of (node, next arc) frames instead of recursing,
+// so graph depth is bounded by memory only. Components are numbered in the order Tarjan closes
+// them, which is a reverse topological order of the condensation: arcs between components
+// always go from a larger id to a smaller one
+public class StrongComponents {
+    private static final int UNVISITED = -1;
+
+    private Graph graph;
+
+    private GraphSnapshot snapshot;
+    private int[] componentIds;
+    private int componentsCount;
+
+    // Condensation DAG in the compressed sparse row form, without repeated arcs
+    private int[] condensationOffsets;
+    private int[] condensationTargets;
+
+
+    public StrongComponents(Graph graph) {
+        this.graph = graph;
+    }
+
+    public Graph getGraph() {
+        return graph;
+    }
+
+    public int componentsCount() {
+        update();
+
+        return componentsCount;
+    }
+
+    // Graph without nodes isn't connected
+    public boolean isStronglyConnected() {
+        return componentsCount() == 1;
+    }
+
+    public int componentOf(Node node) {
+        update();
+        int index = snapshot.indexOf(node);
+
+        return index == -1 ? -1 : componentIds[index];
+    }
+
+    public boolean areStronglyConnected(Node first, Node second) {
+        int firstComponent = componentOf(first);
+
+        return firstComponent != -1 && firstComponent == componentOf(second);
+    }
+
+    public ObservableList<Node> nodesOf(int component) {
+        ObservableList<Node> nodes = FXCollections.observableArrayList();
+        update();
+
+        for (int node = 0; node < componentIds.length; node++) {
+            if (componentIds[node] == component) {
+                nodes.add(snapshot.nodeAt(node));
+            }
+        }
+
+        return nodes;
+    }
+
+    // Every component with its nodes, by component id
+    public ObservableList<ObservableList<Node>> components() {
+        ObservableList<ObservableList<Node>> components = FXCollections.observableArrayList();
+        update();
+
+        for (int component = 0; component < componentsCount; component++) {
+            components.add(FXCollections.observableArrayList());
+        }
+
+        for (int node = 0; node < componentIds.length; node++) {
+            components.get(componentIds[node]).add(snapshot.nodeAt(node));
+        }
+
+        return components;
+    }
+
+    // Components the given one has arcs to in the condensation
+    public int[] condensationSuccessors(int component) {
+        update();
+
+        return Arrays.copyOfRange(condensationTargets, condensationOffsets[component], condensationOffsets[component + 1]);
+    }
+
+    public int condensationArcsCount() {
+        update();
+
+        return condensationTargets.length;
+    }
+
+    /*
+     *      Calculations
+     */
+
+    private synchronized void update() {
+        if (snapshot != null && snapshot.getVersion() == graph.getVersion()) {
+            return;
+        }
+
+        GraphSnapshot newSnapshot = graph.snapshot();
+
+        findComponents(newSnapshot);
+        buildCondensation(newSnapshot);
+        snapshot = newSnapshot;
+    }
+
+    private void findComponents(GraphSnapshot snapshot) {
+        int nodesCount = snapshot.nodesCount();
+        int[] order = new int[nodesCount];
+        int[] lowLinks = new int[nodesCount];
+        int[] nextArcs = new int[nodesCount];
+        boolean[] isOnStack = new boolean[nodesCount];
+
+        int[] stack = new int[nodesCount];
+        int stackSize = 0;
+        int[] callStack = new int[nodesCount];
+        int callStackSize = 0;
+        int visitedCount = 0;
+
+        componentIds = new int[nodesCount];
+        componentsCount = 0;
+        Arrays.fill(order, UNVISITED);
+
+        for (int root = 0; root < nodesCount; root++) {
+            if (order[root] != UNVISITED) {
+                continue;
+            }
+
+            order[root] = lowLinks[root] = visitedCount++;
+            nextArcs[root] = snapshot.outBegin(root);
+            stack[stackSize++] = root;
+            isOnStack[root] = true;
+            callStack[callStackSize++] = root;
+
+            while (callStackSize != 0) {
+                int current = callStack[callStackSize - 1];
+
+                if (nextArcs[current] < snapshot.outEnd(current)) {
+                    int adjacent = snapshot.outTarget(nextArcs[current]++);
+
+                    if (order[adjacent] == UNVISITED) {
+                        order[adjacent] = lowLinks[adjacent] = visitedCount++;
+                        nextArcs[adjacent] = snapshot.outBegin(adjacent);
+                        stack[stackSize++] = adjacent;
+                        isOnStack[adjacent] = true;
+                        callStack[callStackSize++] = adjacent;
+                    } else if (isOnStack[adjacent]) {
+                        lowLinks[current] = Math.min(lowLinks[current], order[adjacent]);
+                    }
+
+                    continue;
+                }
+
+                // All arcs of the node are done: return to the caller
+                callStackSize--;
+
+                if (callStackSize != 0) {
+                    int caller = callStack[callStackSize - 1];
+                    lowLinks[caller] = Math.min(lowLinks[caller], lowLinks[current]);
+                }
+
+                if (lowLinks[current] == order[current]) {
+                    int member;
+
+                    do {
+                        member = stack[--stackSize];
+                        isOnStack[member] = false;
+                        componentIds[member] = componentsCount;
+                    } while (member != current);
+
+                    componentsCount++;
+                }
+            }
+        }
+    }
+
+    private void buildCondensation(GraphSnapshot snapshot) {
+        int nodesCount = snapshot.nodesCount();
+        int[] nodeOffsets = new int[componentsCount + 1];
+        int[] nodesByComponent = new int[nodesCount];
+
+        for (int node = 0; node < nodesCount; node++) {
+            nodeOffsets[componentIds[node] + 1]++;
+        }
+
+        for (int component = 0; component < componentsCount; component++) {
+            nodeOffsets[component + 1] += nodeOffsets[component];
+        }
+
+        int[] fill = Arrays.copyOf(nodeOffsets, componentsCount);
+
+        for (int node = 0; node < nodesCount; node++) {
+            nodesByComponent[fill[componentIds[node]]++] = node;
+        }
+
+        // Nodes are gone through component by component, so a repeated target is caught
+        // by remembering the last component that reached it
+        int[] lastSources = new int[componentsCount];
+        int[] targets = new int[snapshot.arcsCount()];
+        int targetsCount = 0;
+
+        condensationOffsets = new int[componentsCount + 1];
+        Arrays.fill(lastSources, -1);
+
+        for (int component = 0; component < componentsCount; component++) {
+            for (int nodeIter = nodeOffsets[component]; nodeIter < nodeOffsets[component + 1]; nodeIter++) {
+                int node = nodesByComponent[nodeIter];
+
+                for (int arcIter = snapshot.outBegin(node); arcIter < snapshot.outEnd(node); arcIter++) {
+                    int targetComponent = componentIds[snapshot.outTarget(arcIter)];
+
+                    if (targetComponent != component && lastSources[targetComponent] != component) {
+                        lastSources[targetComponent] = component;
+                        targets[targetsCount++] = targetComponent;
+                    }
+                }
+            }
+
+            condensationOffsets[component + 1] = targetsCount;
+        }
+
+        condensationTargets = Arrays.copyOf(targets, targetsCount);
+    }
+}
@@ -0,0 +1,628 @@
+package controller.dir;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+// Left-right planarity test (de Fraysseix, Ossona de Mendez, Rosenstiehl in Brandes' formulation)
+// over a simple undirected graph given by its edges' ends. All three depth-first searches keep
+// their own stacks, so the test takes O(V + E) time and no call stack. When the graph is planar
+// the clockwise order of neighbours around every node is built as well
+class LeftRightPlanarity {
+    private static final int NONE = -1;
+
+    private int nodesCount;
+    private int edgesCount;
+
+    // Undirected adjacency: neighbours of v and edges to them at [adjacencyOffsets[v], adjacencyOffsets[v + 1])
+    private int[] adjacencyOffsets;
+    private int[] adjacentNodes;
+    private int[] adjacentEdges;
+
+    // Orientation given by the first search: every edge goes from its tail to its head
+    private int[] tails;
+    private int[] heads;
+    private int[] heights;
+    private int[] parentEdges;
+    private int[] lowPoints;
+    private int[] secondLowPoints;
+    private int[] nestingDepths;
+    private int[] orientationOrder;
+    private int orientedCount;
+    private List<Integer> roots;
+
+    // Oriented edges of v sorted by nesting depth at [outOffsets[v], outOffsets[v + 1])
+    private int[] outOffsets;
+    private int[] outEdges;
+
+    private int[] refs;
+    private int[] sides;
+    private int[] lowPointEdges;
+    private ConflictPair[] stackBottoms;
+    private List<ConflictPair> conflicts;
+
+    // Embedding by half-edges: 2e goes from the tail of e to its head, 2e + 1 back
+    private int[] clockwise;
+    private int[] counterClockwise;
+    private int[] firstHalfEdges;
+    private int[] leftRefs;
+    private int[] rightRefs;
+
+
+    LeftRightPlanarity(int nodesCount, int[] firstEnds, int[] secondEnds, int edgesCount) {
+        this.nodesCount = nodesCount;
+        this.edgesCount = edgesCount;
+
+        adjacencyOffsets = new int[nodesCount + 1];
+        adjacentNodes = new int[2 * edgesCount];
+        adjacentEdges = new int[2 * edgesCount];
+
+        for (int edge = 0; edge < edgesCount; edge++) {
+            adjacencyOffsets[firstEnds[edge] + 1]++;
+            adjacencyOffsets[secondEnds[edge] + 1]++;
+        }
+
+        for (int node = 0; node < nodesCount; node++) {
+            adjacencyOffsets[node + 1] += adjacencyOffsets[node];
+        }
+
+        int[] fill = Arrays.copyOf(adjacencyOffsets, nodesCount);
+
+        for (int edge = 0; edge < edgesCount; edge++) {
+            adjacentNodes[fill[firstEnds[edge]]] = secondEnds[edge];
+            adjacentEdges[fill[firstEnds[edge]]++] = edge;
+            adjacentNodes[fill[secondEnds[edge]]] = firstEnds[edge];
+            adjacentEdges[fill[secondEnds[edge]]++] = edge;
+        }
+    }
+
+    boolean isPlanar() {
+        if (nodesCount > 2 && edgesCount > 3 * nodesCount - 6) {
+            return false;
+        }
+
+        tails = new int[edgesCount];
+        heads = new int[edgesCount];
+        heights = new int[nodesCount];
+        parentEdges = new int[nodesCount];
+        lowPoints = new int[edgesCount];
+        secondLowPoints = new int[edgesCount];
+        nestingDepths = new int[edgesCount];
+        orientationOrder = new int[edgesCount];
+        orientedCount = 0;
+        roots = new ArrayList<>();
+
+        Arrays.fill(tails, NONE);
+        Arrays.fill(heights, NONE);
+        Arrays.fill(parentEdges, NONE);
+
+        int[] stack = new int[nodesCount + 1];
+        int[] cursors = Arrays.copyOf(adjacencyOffsets, nodesCount);
+        boolean[] isTreeEdgeDone = new boolean[edgesCount];
+
+        for (int node = 0; node < nodesCount; node++) {
+            if (heights[node] == NONE) {
+                heights[node] = 0;
+                roots.add(node);
+                orient(node, stack, cursors, isTreeEdgeDone);
+            }
+        }
+
+        sortOutEdges();
+
+        refs = new int[edgesCount];
+        sides = new int[edgesCount];
+        lowPointEdges = new int[edgesCount];
+        stackBottoms = new ConflictPair[edgesCount];
+        conflicts = new ArrayList<>();
+
+        Arrays.fill(refs, NONE);
+        Arrays.fill(sides, 1);
+
+        cursors = Arrays.copyOf(outOffsets, nodesCount);
+        isTreeEdgeDone = new boolean[edgesCount];
+
+        for (int root : roots) {
+            if (!test(root, stack, cursors, isTreeEdgeDone)) {
+                return false;
+            }
+        }
+
+        embed();
+
+        return true;
+    }
+
+    // Neighbours of every node in clockwise order; only after a successful test
+    int[][] rotations() {
+        int[][] rotations = new int[nodesCount][];
+
+        for (int node = 0; node < nodesCount; node++) {
+            rotations[node] = new int[adjacencyOffsets[node + 1] - adjacencyOffsets[node]];
+
+            int halfEdge = firstHalfEdges[node];
+
+            for (int position = 0; position < rotations[node].length; position++) {
+                rotations[node][position] = halfEdgeEnd(halfEdge);
+                halfEdge = clockwise[halfEdge];
+            }
+        }
+
+        return rotations;
+    }
+
+    /*
+     *      Orientation
+     */
+
+    private void orient(int root, int[] stack, int[] cursors, boolean[] isTreeEdgeDone) {
+        int stackSize = 0;
+
+        stack[stackSize++] = root;
+
+        while (stackSize != 0) {
+            int node = stack[--stackSize];
+            int parentEdge = parentEdges[node];
+
+            while (cursors[node] < adjacencyOffsets[node + 1]) {
+                int adjacent = adjacentNodes[cursors[node]];
+                int edge = adjacentEdges[cursors[node]];
+
+                // Back from the subtree of a tree edge, only its low points are left to pass up
+                if (!(isTreeEdgeDone[edge] && tails[edge] == node)) {
+                    if (tails[edge] != NONE) {
+                        cursors[node]++;
+                        continue;
+                    }
+
+                    tails[edge] = node;
+                    heads[edge] = adjacent;
+                    orientationOrder[orientedCount++] = edge;
+                    lowPoints[edge] = heights[node];
+                    secondLowPoints[edge] = heights[node];
+
+                    if (heights[adjacent] == NONE) {
+                        parentEdges[adjacent] = edge;
+                        heights[adjacent] = heights[node] + 1;
+                        isTreeEdgeDone[edge] = true;
+                        stack[stackSize++] = node;
+                        stack[stackSize++] = adjacent;
+                        break;
+                    }
+
+                    lowPoints[edge] = heights[adjacent];
+                }
+
+                nestingDepths[edge] = 2 * lowPoints[edge];
+
+                if (secondLowPoints[edge] < heights[node]) {
+                    nestingDepths[edge]++;
+                }
+
+                if (parentEdge != NONE) {
+                    if (lowPoints[edge] < lowPoints[parentEdge]) {
+                        secondLowPoints[parentEdge] = Math.min(lowPoints[parentEdge], secondLowPoints[edge]);
+                        lowPoints[parentEdge] = lowPoints[edge];
+                    } else if (lowPoints[edge] > lowPoints[parentEdge]) {
+                        secondLowPoints[parentEdge] = Math.min(secondLowPoints[parentEdge], lowPoints[edge]);
+                    } else {
+                        secondLowPoints[parentEdge] = Math.min(secondLowPoints[parentEdge], secondLowPoints[edge]);
+                    }
+                }
+
+                cursors[node]++;
+            }
+        }
+    }
+
+    // Out-edges of a node first come in the order they were oriented
+    private void sortOutEdges() {
+        outOffsets = new int[nodesCount + 1];
+        outEdges = new int[edgesCount];
+
+        for (int edge = 0; edge < edgesCount; edge++) {
+            outOffsets[tails[edge] + 1]++;
+        }
+
+        for (int node = 0; node < nodesCount; node++) {
+            outOffsets[node + 1] += outOffsets[node];
+        }
+
+        int[] fill = Arrays.copyOf(outOffsets, nodesCount);
+
+        for (int orderIter = 0; orderIter < edgesCount; orderIter++) {
+            int edge = orientationOrder[orderIter];
+            outEdges[fill[tails[edge]]++] = edge;
+        }
+
+        resortOutEdges();
+    }
+
+    // By nesting depth, stable: the packed (depth, position) keys keep the order of equal depths
+    private void resortOutEdges() {
+        long[] keys = new long[edgesCount];
+
+        for (int node = 0; node < nodesCount; node++) {
+            int begin = outOffsets[node];
+            int end = outOffsets[node + 1];
+
+            for (int position = begin; position < end; position++) {
+                keys[position] = ((long) (nestingDepths[outEdges[position]] + 2 * nodesCount + 2) << 32)
+                        | (position - begin);
+            }
+
+            Arrays.sort(keys, begin, end);
+            int[] sorted = new int[end - begin];
+
+            for (int position = begin; position < end; position++) {
+                sorted[position - begin] = outEdges[begin + (int) (keys[position] & 0xFFFFFFFFL)];
+            }
+
+            System.arraycopy(sorted, 0, outEdges, begin, sorted.length);
+        }
+    }
+
+    /*
+     *      Testing
+     */
+
+    private boolean test(int root, int[] stack, int[] cursors, boolean[] isTreeEdgeDone) {
+        int stackSize = 0;
+
+        stack[stackSize++] = root;
+
+        while (stackSize != 0) {
+            int node = stack[--stackSize];
+            int parentEdge = parentEdges[node];
+            boolean isDescending = false;
+
+            while (cursors[node] < outOffsets[node + 1]) {
+                int edge = outEdges[cursors[node]];
+                int adjacent = heads[edge];
+
+                if (!isTreeEdgeDone[edge]) {
+                    stackBottoms[edge] = topConflict();
+
+                    if (edge == parentEdges[adjacent]) {
+                        isTreeEdgeDone[edge] = true;
+                        isDescending = true;
+                        stack[stackSize++] = node;
+                        stack[stackSize++] = adjacent;
+                        break;
+                    }
+
+                    lowPointEdges[edge] = edge;
+                    conflicts.add(new ConflictPair(new Interval(), new Interval(edge, edge)));
+                }
+
+                // Integrate new return edges
+                if (lowPoints[edge] < heights[node]) {
+                    if (cursors[node] == outOffsets[node]) {
+                        lowPointEdges[parentEdge] = lowPointEdges[edge];
+                    } else if (!addConstraints(edge, parentEdge)) {
+                        return false;
+                    }
+                }
+
+                cursors[node]++;
+            }
+
+            if (!isDescending && parentEdge != NONE) {
+                removeBackEdges(parentEdge);
+            }
+        }
+
+        return true;
+    }
+
+    private boolean addConstraints(int edge, int parentEdge) {
+        ConflictPair merged = new ConflictPair(new Interval(), new Interval());
+
+        // Merge return edges of the edge into the right interval
+        do {
+            ConflictPair conflict = conflicts.remove(conflicts.size() - 1);
+
+            if (!conflict.left.isEmpty()) {
+                conflict.swap();
+            }
+
+            if (!conflict.left.isEmpty()) {
+                return false;
+            }
+
+            if (lowPoints[conflict.right.low] > lowPoints[parentEdge]) {
+                if (merged.right.isEmpty()) {
+                    merged.right = conflict.right.copy();
+                } else {
+                    refs[merged.right.low] = conflict.right.high;
+                }
+                merged.right.low = conflict.right.low;
+            } else {
+                refs[conflict.right.low] = lowPointEdges[parentEdge];
+            }
+        } while (topConflict() != stackBottoms[edge]);
+
+        // Merge conflicting return edges of the earlier siblings into the left interval
+        while (topConflict() != null
+                && (isConflicting(topConflict().left, edge) || isConflicting(topConflict().right, edge))) {
+            ConflictPair conflict = conflicts.remove(conflicts.size() - 1);
+
+            if (isConflicting(conflict.right, edge)) {
+                conflict.swap();
+            }
+
+            if (isConflicting(conflict.right, edge)) {
+                return false;
+            }
+
+            refs[merged.right.low] = conflict.right.high;
+
+            if (conflict.right.low != NONE) {
+                merged.right.low = conflict.right.low;
+            }
+
+            if (merged.left.isEmpty()) {
+                merged.left = conflict.left.copy();
+            } else {
+                refs[merged.left.low] = conflict.left.high;
+            }
+            merged.left.low = conflict.left.low;
+        }
+
+        if (!(merged.left.isEmpty() && merged.right.isEmpty())) {
+            conflicts.add(merged);
+        }
+
+        return true;
+    }
+
+    private void removeBackEdges(int parentEdge) {
+        int parent = tails[parentEdge];
+
+        // Drop entire conflict pairs
+        while (topConflict() != null && lowest(topConflict()) == heights[parent]) {
+            ConflictPair conflict = conflicts.remove(conflicts.size() - 1);
+
+            if (conflict.left.low != NONE) {
+                sides[conflict.left.low] = -1;
+            }
+        }
+
+        // One more conflict pair to trim
+        if (topConflict() != null) {
+            ConflictPair conflict = conflicts.remove(conflicts.size() - 1);
+
+            while (conflict.left.high != NONE && heads[conflict.left.high] == parent) {
+                conflict.left.high = refs[conflict.left.high];
+            }
+
+            if (conflict.left.high == NONE && conflict.left.low != NONE) {
+                refs[conflict.left.low] = conflict.right.low;
+                sides[conflict.left.low] = -1;
+                conflict.left.low = NONE;
+            }
+
+            while (conflict.right.high != NONE && heads[conflict.right.high] == parent) {
+                conflict.right.high = refs[conflict.right.high];
+            }
+
+            if (conflict.right.high == NONE && conflict.right.low != NONE) {
+                refs[conflict.right.low] = conflict.left.low;
+                sides[conflict.right.low] = -1;
+                conflict.right.low = NONE;
+            }
+
+            conflicts.add(conflict);
+        }
+
+        // Side of the edge is the side of its highest return edge
+        if (lowPoints[parentEdge] < heights[parent] && topConflict() != null) {
+            int leftHigh = topConflict().left.high;
+            int rightHigh = topConflict().right.high;
+
+            if (leftHigh != NONE && (rightHigh == NONE || lowPoints[leftHigh] > lowPoints[rightHigh])) {
+                refs[parentEdge] = leftHigh;
+            } else {
+                refs[parentEdge] = rightHigh;
+            }
+        }
+    }
+
+    /*
+     *      Embedding
+     */
+
+    private void embed() {
+        int[] oldRefs = new int[edgesCount];
+        Arrays.fill(oldRefs, NONE);
+
+        for (int edge = 0; edge < edgesCount; edge++) {
+            nestingDepths[edge] *= sign(edge, oldRefs);
+        }
+
+        resortOutEdges();
+
+        clockwise = new int[2 * edgesCount];
+        counterClockwise = new int[2 * edgesCount];
+        firstHalfEdges = new int[nodesCount];
+        leftRefs = new int[nodesCount];
+        rightRefs = new int[nodesCount];
+
+        Arrays.fill(firstHalfEdges, NONE);
+
+        for (int node = 0; node < nodesCount; node++) {
+            int previous = NONE;
+
+            for (int position = outOffsets[node]; position < outOffsets[node + 1]; position++) {
+                addHalfEdgeClockwise(node, 2 * outEdges[position], previous);
+                previous = 2 * outEdges[position];
+            }
+        }
+
+        int[] stack = new int[nodesCount + 1];
+        int[] cursors = Arrays.copyOf(outOffsets, nodesCount);
+
+        for (int root : roots) {
+            int stackSize = 0;
+            stack[stackSize++] = root;
+
+            while (stackSize != 0) {
+                int node = stack[--stackSize];
+
+                while (cursors[node] < outOffsets[node + 1]) {
+                    int edge = outEdges[cursors[node]++];
+                    int adjacent = heads[edge];
+
+                    if (edge == parentEdges[adjacent]) {
+                        addHalfEdgeFirst(adjacent, 2 * edge + 1);
+                        leftRefs[node] = 2 * edge;
+                        rightRefs[node] = 2 * edge;
+                        stack[stackSize++] = node;
+                        stack[stackSize++] = adjacent;
+                        break;
+                    }
+
+                    if (sides[edge] == 1) {
+                        addHalfEdgeClockwise(adjacent, 2 * edge + 1, rightRefs[adjacent]);
+                    } else {
+                        addHalfEdgeCounterClockwise(adjacent, 2 * edge + 1, leftRefs[adjacent]);
+                        leftRefs[adjacent] = 2 * edge + 1;
+                    }
+                }
+            }
+        }
+    }
+
+    // Resolves the chain of refs from the edge down, multiplying the sides on the way back.
+    // Refs are cleared as they're resolved, so every chain is walked once over all calls
+    private int sign(int edge, int[] oldRefs) {
+        List<Integer> stack = new ArrayList<>();
+        List<Integer> visited = new ArrayList<>();
+        stack.add(edge);
+
+        while (!stack.isEmpty()) {
+            int current = stack.remove(stack.size() - 1);
+
+            if (refs[current] != NONE) {
+                stack.add(current);
+                stack.add(refs[current]);
+                visited.add(current);
+                oldRefs[current] = refs[current];
+                refs[current] = NONE;
+            } else if (oldRefs[current] != NONE) {
+                sides[current] *= sides[oldRefs[current]];
+            }
+        }
+
+        for (int visitedEdge : visited) {
+            oldRefs[visitedEdge] = NONE;
+        }
+
+        return sides[edge];
+    }
+
+    private void addHalfEdgeClockwise(int node, int halfEdge, int reference) {
+        if (reference == NONE) {
+            clockwise[halfEdge] = halfEdge;
+            counterClockwise[halfEdge] = halfEdge;
+            firstHalfEdges[node] = halfEdge;
+
+            return;
+        }
+
+        int next = clockwise[reference];
+
+        clockwise[reference] = halfEdge;
+        counterClockwise[halfEdge] = reference;
+        clockwise[halfEdge] = next;
+        counterClockwise[next] = halfEdge;
+    }
+
+    private void addHalfEdgeCounterClockwise(int node, int halfEdge, int reference) {
+        if (reference == NONE) {
+            addHalfEdgeClockwise(node, halfEdge, NONE);
+
+            return;
+        }
+
+        addHalfEdgeClockwise(node, halfEdge, counterClockwise[reference]);
+
+        if (firstHalfEdges[node] == reference) {
+            firstHalfEdges[node] = halfEdge;
+        }
+    }
+
+    private void addHalfEdgeFirst(int node, int halfEdge) {
+        addHalfEdgeCounterClockwise(node, halfEdge, firstHalfEdges[node]);
+    }
+
+    /*
+     *      Utility
+     */
+
+    private int halfEdgeEnd(int halfEdge) {
+        return halfEdge % 2 == 0 ? heads[halfEdge / 2] : tails[halfEdge / 2];
+    }
+
+    private ConflictPair topConflict() {
+        return conflicts.isEmpty() ? null : conflicts.get(conflicts.size() - 1);
+    }
+
+    private boolean isConflicting(Interval interval, int edge) {
+        return !interval.isEmpty() && lowPoints[interval.high] > lowPoints[edge];
+    }
+
+    private int lowest(ConflictPair conflict) {
+        if (conflict.left.isEmpty()) {
+            return lowPoints[conflict.right.low];
+        }
+
+        if (conflict.right.isEmpty()) {
+            return lowPoints[conflict.left.low];
+        }
+
+        return Math.min(lowPoints[conflict.left.low], lowPoints[conflict.right.low]);
+    }
+
+    // Return edges between 'low' and 'high' linked by refs
+    private static class Interval {
+        private int low;
+        private int high;
+
+
+        Interval() {
+            this(NONE, NONE);
+        }
+
+        Interval(int low, int high) {
+            this.low = low;
+            this.high = high;
+        }
+
+        boolean isEmpty() {
+            return low == NONE && high == NONE;
+        }
+
+        Interval copy() {
+            return new Interval(low, high);
+        }
+    }
+
+    private static class ConflictPair {
+        private Interval left;
+        private Interval right;
+
+
+        ConflictPair(Interval left, Interval right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        void swap() {
+            Interval swap = left;
+            left = right;
+            right = swap;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package controller.dir;
+
+import model.Arc;
+import model.Graph;
+import model.GraphSnapshot;
+import model.Node;
+
+import java.util.*;
+
+
+// Planarity of the graph with arc directions, loops and repeated arcs ignored, by the left-right test.
+// A planar graph gets its embedding: the clockwise order of neighbours around every node.
+// A non-planar one can be given a Kuratowski witness, a subdivision of K5 or K3,3 among its arcs,
+// found on request by dropping every edge the graph stays non-planar without. That takes many
+// tests, so unlike verify() it's meant to run aside from the FX thread
+public class PlanarityVerifier {
+    public static final String K5 = "K5";
+    public static final String K33 = "K3,3";
+
+    private Graph graph;
+    private GraphSnapshot snapshot;
+
+    // Simple undirected edges between node indices, each with one of its arcs
+    private int[] firstEnds;
+    private int[] secondEnds;
+    private Arc[] edgeArcs;
+    private int edgesCount;
+
+    private int[][] rotations;
+    private List<Arc> kuratowskiArcs;
+
+
+    public PlanarityVerifier(Graph graph) {
+        this.graph = graph;
+        this.snapshot = graph.snapshot();
+
+        collectEdges();
+    }
+
+    public boolean verify() {
+        LeftRightPlanarity planarity = new LeftRightPlanarity(snapshot.nodesCount(), firstEnds, secondEnds, edgesCount);
+
+        rotations = null;
+        kuratowskiArcs = null;
+
+        if (planarity.isPlanar()) {
+            rotations = planarity.rotations();
+
+            return true;
+        }
+
+        return false;
+    }
+
+    // Neighbours of every node in clockwise order, or null if the graph isn't planar
+    public Map<Node, List<Node>> getEmbedding() {
+        if (rotations == null) {
+            return null;
+        }
+
+        Map<Node, List<Node>> embedding = new LinkedHashMap<>();
+
+        for (int node = 0; node < rotations.length; node++) {
+            List<Node> neighbours = new ArrayList<>();
+
+            for (int adjacent : rotations[node]) {
+                neighbours.add(snapshot.nodeAt(adjacent));
+            }
+
+            embedding.put(snapshot.nodeAt(node), Collections.unmodifiableList(neighbours));
+        }
+
+        return embedding;
+    }
+
+    // The same embedding by indices of the snapshot below
+    public int[][] getRotations() {
+        return rotations;
+    }
+
+    public GraphSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    // Arcs of a K5 or K3,3 subdivision, or null if the graph is planar. Found on the first call
+    public List<Arc> findKuratowskiArcs() {
+        if (rotations != null) {
+            return null;
+        }
+
+        if (kuratowskiArcs == null) {
+            kuratowskiArcs = findKuratowskiSubgraph();
+        }
+
+        return kuratowskiArcs;
+    }
+
+    // K5 if the witness has five branch nodes of degree four, K3,3 otherwise
+    public String findKuratowskiGraph() {
+        List<Arc> arcs = findKuratowskiArcs();
+
+        if (arcs == null) {
+            return null;
+        }
+
+        Map<Node, Integer> degrees = new HashMap<>();
+
+        for (Arc arc : arcs) {
+            degrees.merge(arc.getBegin(), 1, Integer::sum);
+            degrees.merge(arc.getEnd(), 1, Integer::sum);
+        }
+
+        int fourDegreeNodesCount = 0;
+
+        for (int degree : degrees.values()) {
+            if (degree == 4) {
+                fourDegreeNodesCount++;
+            }
+        }
+
+        return fourDegreeNodesCount == 5 ? K5 : K33;
+    }
+
+    /*
+     *      Utility
+     */
+
+    private void collectEdges() {
+        Set<Long> pairs = new HashSet<>();
+        int arcsCount = snapshot.arcsCount();
+
+        firstEnds = new int[arcsCount];
+        secondEnds = new int[arcsCount];
+        edgeArcs = new Arc[arcsCount];
+        edgesCount = 0;
+
+        for (int node = 0; node < snapshot.nodesCount(); node++) {
+            for (int arcIter = snapshot.outBegin(node); arcIter < snapshot.outEnd(node); arcIter++) {
+                int adjacent = snapshot.outTarget(arcIter);
+                long pair = (long) Math.min(node, adjacent) * snapshot.nodesCount() + Math.max(node, adjacent);
+
+                if (node != adjacent && pairs.add(pair)) {
+                    firstEnds[edgesCount] = node;
+                    secondEnds[edgesCount] = adjacent;
+                    edgeArcs[edgesCount++] = snapshot.outArc(arcIter);
+                }
+            }
+        }
+    }
+
+    // What's left after every edge that can go has gone is a minimal non-planar graph,
+    // i.e. a Kuratowski subdivision. Edges are dropped from the end of the undecided ones in runs
+    // that double while the graph stays non-planar without them and halve when it doesn't; an edge
+    // that can't go alone is kept at the front. Edges away from the witness go in a few tests, so
+    // a witness of k edges takes about k log(E / k) tests over a graph that shrinks as they go
+    private List<Arc> findKuratowskiSubgraph() {
+        int[] keptFirstEnds = Arrays.copyOf(firstEnds, edgesCount);
+        int[] keptSecondEnds = Arrays.copyOf(secondEnds, edgesCount);
+        Arc[] keptArcs = Arrays.copyOf(edgeArcs, edgesCount);
+        int keptCount = 0;
+        int undecidedEnd = edgesCount;
+        int runLength = 1;
+
+        while (keptCount < undecidedEnd) {
+            runLength = Math.min(runLength, undecidedEnd - keptCount);
+
+            if (!new LeftRightPlanarity(snapshot.nodesCount(), keptFirstEnds, keptSecondEnds, undecidedEnd - runLength).isPlanar()) {
+                undecidedEnd -= runLength;
+                runLength *= 2;
+            } else if (runLength > 1) {
+                runLength /= 2;
+            } else {
+                swapEdges(keptFirstEnds, keptSecondEnds, keptArcs, keptCount++, undecidedEnd - 1);
+            }
+        }
+
+        return new ArrayList<>(Arrays.asList(keptArcs).subList(0, keptCount));
+    }
+
+    private static void swapEdges(int[] firstEnds, int[] secondEnds, Arc[] arcs, int first, int second) {
+        int swapEnd = firstEnds[first];
+        firstEnds[first] = firstEnds[second];
+        firstEnds[second] = swapEnd;
+
+        swapEnd = secondEnds[first];
+        secondEnds[first] = secondEnds[second];
+        secondEnds[second] = swapEnd;
+
+        Arc swapArc = arcs[first];
+        arcs[first] = arcs[second];
+        arcs[second] = swapArc;
+    }
+}
@@ -0,0 +1,117 @@
+package controller.dir;
+
+import model.Graph;
+import model.GraphSnapshot;
+import model.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+// Checks whether the graph, with arc directions and repeated arcs ignored, is a tree:
+// one depth-first search over the snapshot with an explicit stack, O(V + E), no copies.
+// When it isn't, there is a witness: a cycle (a loop counts) or the nodes out of reach
+public class TreeVerifier {
+    private static final int NO_PARENT = -1;
+
+    private Graph graph;
+
+    private List<Node> cycle;
+    private List<Node> unreachableNodes;
+
+
+    public TreeVerifier(Graph graph) {
+        this.graph = graph;
+
+        cycle = new ArrayList<>();
+        unreachableNodes = new ArrayList<>();
+    }
+
+    // Graph without nodes isn't a tree
+    public boolean verify() {
+        GraphSnapshot snapshot = graph.snapshot();
+        int nodesCount = snapshot.nodesCount();
+
+        cycle.clear();
+        unreachableNodes.clear();
+
+        if (nodesCount == 0) {
+            return false;
+        }
+
+        int[] parents = new int[nodesCount];
+        int[] depths = new int[nodesCount];
+        boolean[] isVisited = new boolean[nodesCount];
+
+        // Arcs of a node are gone through out-arcs first, then in-arcs, by one cursor
+        int[] nextArcs = new int[nodesCount];
+        int[] stack = new int[nodesCount];
+        int stackSize = 0;
+
+        Arrays.fill(parents, NO_PARENT);
+        isVisited[0] = true;
+        stack[stackSize++] = 0;
+
+        while (stackSize != 0) {
+            int current = stack[stackSize - 1];
+            int cursor = nextArcs[current]++;
+
+            if (cursor >= snapshot.outDegree(current) + snapshot.inDegree(current)) {
+                stackSize--;
+                continue;
+            }
+
+            int adjacent = cursor < snapshot.outDegree(current)
+                    ? snapshot.outTarget(snapshot.outBegin(current) + cursor)
+                    : snapshot.inSource(snapshot.inBegin(current) + cursor - snapshot.outDegree(current));
+
+            if (!isVisited[adjacent]) {
+                isVisited[adjacent] = true;
+                parents[adjacent] = current;
+                depths[adjacent] = depths[current] + 1;
+                stack[stackSize++] = adjacent;
+            } else if (adjacent != parents[current] && parents[adjacent] != current) {
+                // The same pair of nodes joined more than once is still one edge
+                collectCycle(snapshot, parents, depths, current, adjacent);
+
+                return false;
+            }
+        }
+
+        for (int node = 0; node < nodesCount; node++) {
+            if (!isVisited[node]) {
+                unreachableNodes.add(snapshot.nodeAt(node));
+            }
+        }
+
+        return unreachableNodes.isEmpty();
+    }
+
+    // Nodes of the cycle found by the last verification, the first one repeated at the end
+    public List<Node> getCycle() {
+        return cycle;
+    }
+
+    // Nodes the last verification couldn't reach from the first node
+    public List<Node> getUnreachableNodes() {
+        return unreachableNodes;
+    }
+
+    /*
+     *      Utility
+     */
+
+    // One of the nodes is an ancestor of the other, so the cycle is the tree path between them
+    private void collectCycle(GraphSnapshot snapshot, int[] parents, int[] depths, int first, int second) {
+        int descendant = depths[first] >= depths[second] ? first : second;
+        int ancestor = descendant == first ? second : first;
+
+        for (int node = descendant; node != ancestor; node = parents[node]) {
+            cycle.add(snapshot.nodeAt(node));
+        }
+
+        cycle.add(snapshot.nodeAt(ancestor));
+        cycle.add(snapshot.nodeAt(descendant));
+    }
+}
@@ -24,10 +24,8 @@ public class AList {
     public List<Node> setAdjacentNodesFor(Node node) {
         List<Node> adjacents = new ArrayList<>();
 
-        for (Arc arc : graph.getArcs()) {
-            if (arc.getBegin().equals(node)) {
-                adjacents.add(arc.getEnd());
-            }
+        for (Arc arc : graph.getArcStore().outgoingArcs(node)) {
+            adjacents.add(arc.getEnd());
         }
 
         //adjacencyLists.put(node, adjacents);
@@ -39,22 +37,49 @@ public class AList {
      *      Configs
      */
 
+    // Every change patches only the lists of the nodes it touches
     private void configureAdjacencyList() {
         for (Node node : graph.getNodes()) {
             adjacencyLists.put(node, setAdjacentNodesFor(node));
         }
 
-        graph.getArcs().addListener((ListChangeListener) changeList -> {
-            adjacencyLists.clear();
-            for (Node node : graph.getNodes()) {
-                adjacencyLists.put(node, setAdjacentNodesFor(node));
+        graph.getArcs().addListener((ListChangeListener<Arc>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) {
+                    continue;
+                }
+
+                for (Arc arc : change.getRemoved()) {
+                    List<Node> adjacents = adjacencyLists.get(arc.getBegin());
+
+                    if (adjacents != null) {
+                        adjacents.remove(arc.getEnd());
+                    }
+                }
+
+                for (Arc arc : change.getAddedSubList()) {
+                    List<Node> adjacents = adjacencyLists.get(arc.getBegin());
+
+                    if (adjacents != null) {
+                        adjacents.add(arc.getEnd());
+                    }
+                }
             }
         });
 
-        graph.getNodes().addListener((ListChangeListener) changeList -> {
-            adjacencyLists.clear();
-            for (Node node : graph.getNodes()) {
-                adjacencyLists.put(node, setAdjacentNodesFor(node));
+        graph.getNodes().addListener((ListChangeListener<Node>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) {
+                    continue;
+                }
+
+                for (Node node : change.getRemoved()) {
+                    adjacencyLists.remove(node);
+                }
+
+                for (Node node : change.getAddedSubList()) {
+                    adjacencyLists.put(node, setAdjacentNodesFor(node));
+                }
             }
         });
     }
@@ -6,6 +6,9 @@ import java.util.Objects;
 public class Arc {
     public static final int WEIGHT = 1;
 
+    private static long arcCounter;
+    private final long IDENTIFIER = arcCounter++;
+
     private Node begin;
     private Node end;
     private boolean isDirected;
@@ -23,6 +26,10 @@ public class Arc {
         this.isDirected = isDirected;
     }
 
+    public long getIdentifier() {
+        return IDENTIFIER;
+    }
+
     public Node getBegin() {
         return begin;
     }
@@ -56,4 +63,9 @@ public class Arc {
         return  Objects.equals(begin, arcToCheck.begin) &&
                 Objects.equals(end, arcToCheck.end);
     }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(begin, end);
+    }
 }
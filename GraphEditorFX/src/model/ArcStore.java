@@ -0,0 +1,160 @@
+package model;
+
+import java.util.*;
+
+
+public class ArcStore {
+    private Map<Node, Map<Node, List<Arc>>> arcsByEnds;
+    private Map<Node, Set<Node>> beginsByEnd;
+    private Set<Arc> loops;
+    private int size;
+
+
+    public ArcStore() {
+        arcsByEnds = new HashMap<>();
+        beginsByEnd = new HashMap<>();
+        loops = Collections.newSetFromMap(new IdentityHashMap<>());
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(Arc arc) {
+        arcsByEnds.computeIfAbsent(arc.getBegin(), key -> new LinkedHashMap<>())
+                .computeIfAbsent(arc.getEnd(), key -> new ArrayList<>())
+                .add(arc);
+        beginsByEnd.computeIfAbsent(arc.getEnd(), key -> new LinkedHashSet<>()).add(arc.getBegin());
+
+        if (arc.getBegin().equals(arc.getEnd())) {
+            loops.add(arc);
+        }
+
+        size++;
+    }
+
+    // Removes the very instance given, not just an arc equal to it
+    public boolean remove(Arc arc) {
+        Map<Node, List<Arc>> arcsFromBegin = arcsByEnds.get(arc.getBegin());
+
+        if (arcsFromBegin == null || !arcsFromBegin.containsKey(arc.getEnd())) {
+            return false;
+        }
+
+        List<Arc> arcsBetween = arcsFromBegin.get(arc.getEnd());
+        int position = instancePosition(arcsBetween, arc);
+
+        if (position == -1) {
+            return false;
+        }
+
+        arcsBetween.remove(position);
+        size--;
+
+        if (arcsBetween.isEmpty()) {
+            arcsFromBegin.remove(arc.getEnd());
+
+            if (arcsFromBegin.isEmpty()) {
+                arcsByEnds.remove(arc.getBegin());
+            }
+
+            Set<Node> beginsToEnd = beginsByEnd.get(arc.getEnd());
+            beginsToEnd.remove(arc.getBegin());
+
+            if (beginsToEnd.isEmpty()) {
+                beginsByEnd.remove(arc.getEnd());
+            }
+        }
+
+        if (instancePosition(arcsBetween, arc) == -1) {
+            loops.remove(arc);
+        }
+
+        return true;
+    }
+
+    /*
+     *      Searchers
+     */
+
+    public Arc first(Node begin, Node end) {
+        List<Arc> arcsBetween = arcsBetween(begin, end);
+
+        return arcsBetween.isEmpty() ? null : arcsBetween.get(0);
+    }
+
+    public List<Arc> arcsBetween(Node begin, Node end) {
+        Map<Node, List<Arc>> arcsFromBegin = arcsByEnds.get(begin);
+
+        if (arcsFromBegin == null || !arcsFromBegin.containsKey(end)) {
+            return Collections.emptyList();
+        }
+
+        return Collections.unmodifiableList(arcsFromBegin.get(end));
+    }
+
+    // Arcs beginning at the node, found in O(degree)
+    public List<Arc> outgoingArcs(Node node) {
+        List<Arc> outgoing = new ArrayList<>();
+
+        if (arcsByEnds.containsKey(node)) {
+            for (List<Arc> arcsBetween : arcsByEnds.get(node).values()) {
+                outgoing.addAll(arcsBetween);
+            }
+        }
+
+        return outgoing;
+    }
+
+    // Arcs ending at the node, found in O(degree)
+    public List<Arc> incomingArcs(Node node) {
+        List<Arc> incoming = new ArrayList<>();
+
+        if (beginsByEnd.containsKey(node)) {
+            for (Node begin : beginsByEnd.get(node)) {
+                incoming.addAll(arcsByEnds.get(begin).get(node));
+            }
+        }
+
+        return incoming;
+    }
+
+    public int multiplicity(Node begin, Node end) {
+        return arcsBetween(begin, end).size();
+    }
+
+    public Set<Arc> loops() {
+        return Collections.unmodifiableSet(loops);
+    }
+
+    /*
+     *      'Contains' methods
+     */
+
+    public boolean contains(Node begin, Node end) {
+        return multiplicity(begin, end) != 0;
+    }
+
+    public boolean containsInstance(Arc arc) {
+        return instancePosition(arcsBetween(arc.getBegin(), arc.getEnd()), arc) != -1;
+    }
+
+    public boolean containsParallelArcs(Node begin, Node end) {
+        return multiplicity(begin, end) > 1;
+    }
+
+    /*
+     *      Utility
+     */
+
+    private int instancePosition(List<Arc> arcsBetween, Arc arc) {
+        for (int arcIter = 0; arcIter < arcsBetween.size(); arcIter++) {
+            if (arcsBetween.get(arcIter) == arc) {
+                return arcIter;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,276 @@
+package model;
+
+import javafx.collections.ListChangeListener;
+
+import java.util.*;
+
+
+// Weakly connected components kept in a union-find over the graph's node indices.
+// Added arcs and nodes are merged in as they come. A removed arc is checked with a search
+// from both of its ends that stops as soon as they meet; only if they don't, or a node is
+// removed and the indices move, the union-find is built anew on the next query
+public class Connectivity {
+    private Graph graph;
+
+    // Arrays have room for more nodes than nodesCount, which grows by doubling
+    private int[] parents;
+    private int[] sizes;
+    private int nodesCount;
+    private int componentsCount;
+    private boolean isOutdated;
+
+    // Side of each node reached by the last search: searchStamp or searchStamp + 1
+    private int[] sides;
+    private int searchStamp;
+    private int[] firstFrontier;
+    private int[] secondFrontier;
+
+
+    public Connectivity(Graph graph) {
+        this.graph = graph;
+
+        configureConnectivity();
+    }
+
+    public Graph getGraph() {
+        return graph;
+    }
+
+    public int componentsCount() {
+        rebuildIfOutdated();
+
+        return componentsCount;
+    }
+
+    // Graph without nodes isn't connected
+    public boolean isConnected() {
+        return componentsCount() == 1;
+    }
+
+    public boolean areConnected(Node first, Node second) {
+        rebuildIfOutdated();
+
+        int firstIndex = graph.indexOf(first);
+        int secondIndex = graph.indexOf(second);
+
+        return firstIndex != -1 && secondIndex != -1 && find(firstIndex) == find(secondIndex);
+    }
+
+    /*
+     *      Configs
+     */
+
+    private void configureConnectivity() {
+        rebuild();
+
+        graph.getArcs().addListener((ListChangeListener<Arc>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) {
+                    continue;
+                }
+
+                for (Arc arc : change.getRemoved()) {
+                    removeArc(arc);
+                }
+
+                for (Arc arc : change.getAddedSubList()) {
+                    addArc(arc);
+                }
+            }
+        });
+
+        graph.getNodes().addListener((ListChangeListener<Node>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) {
+                    continue;
+                }
+
+                if (change.wasRemoved()) {
+                    isOutdated = true;
+                }
+
+                for (Node node : change.getAddedSubList()) {
+                    addNode(node);
+                }
+            }
+        });
+    }
+
+    /*
+     *      Updates
+     */
+
+    private void addNode(Node node) {
+        if (isOutdated) {
+            return;
+        }
+
+        int index = graph.indexOf(node);
+
+        if (index != nodesCount) {
+            isOutdated = true;
+            return;
+        }
+
+        if (index == parents.length) {
+            grow(Math.max(2 * parents.length, 1));
+        }
+
+        nodesCount++;
+        parents[index] = index;
+        sizes[index] = 1;
+        componentsCount++;
+
+        // Arcs may have come before their nodes
+        for (Arc arc : graph.getArcStore().outgoingArcs(node)) {
+            addArc(arc);
+        }
+
+        for (Arc arc : graph.getArcStore().incomingArcs(node)) {
+            addArc(arc);
+        }
+    }
+
+    private void addArc(Arc arc) {
+        int begin = graph.indexOf(arc.getBegin());
+        int end = graph.indexOf(arc.getEnd());
+
+        if (!isOutdated && begin != -1 && end != -1 && begin < nodesCount && end < nodesCount) {
+            union(begin, end);
+        }
+    }
+
+    private void removeArc(Arc arc) {
+        Node begin = arc.getBegin();
+        Node end = arc.getEnd();
+
+        if (isOutdated || begin == end || graph.indexOf(begin) == -1 || graph.indexOf(end) == -1
+                || graph.containsArc(begin, end) || graph.containsArc(end, begin)) {
+            return;
+        }
+
+        if (!areStillLinked(graph.indexOf(begin), graph.indexOf(end))) {
+            isOutdated = true;
+        }
+    }
+
+    // Two breadth-first searches over arcs of both directions, the smaller frontier goes first.
+    // When the ends have come apart, the search of the smaller side runs out early
+    private boolean areStillLinked(int first, int second) {
+        if (searchStamp >= Integer.MAX_VALUE - 2) {
+            Arrays.fill(sides, 0);
+            searchStamp = 0;
+        }
+        searchStamp += 2;
+
+        int[][] frontiers = {firstFrontier, secondFrontier};
+        int[] heads = new int[2];
+        int[] tails = new int[2];
+
+        sides[first] = searchStamp;
+        sides[second] = searchStamp + 1;
+        frontiers[0][tails[0]++] = first;
+        frontiers[1][tails[1]++] = second;
+
+        while (heads[0] != tails[0] && heads[1] != tails[1]) {
+            int sideIter = tails[0] - heads[0] <= tails[1] - heads[1] ? 0 : 1;
+            int side = searchStamp + sideIter;
+            int otherSide = searchStamp + 1 - sideIter;
+            int[] frontier = frontiers[sideIter];
+            Node current = graph.getNodeIndex().nodeAt(frontier[heads[sideIter]++]);
+
+            for (Arc arc : graph.getArcStore().outgoingArcs(current)) {
+                int adjacent = graph.indexOf(arc.getEnd());
+
+                if (sides[adjacent] == otherSide) {
+                    return true;
+                } else if (sides[adjacent] != side) {
+                    sides[adjacent] = side;
+                    frontier[tails[sideIter]++] = adjacent;
+                }
+            }
+
+            for (Arc arc : graph.getArcStore().incomingArcs(current)) {
+                int adjacent = graph.indexOf(arc.getBegin());
+
+                if (sides[adjacent] == otherSide) {
+                    return true;
+                } else if (sides[adjacent] != side) {
+                    sides[adjacent] = side;
+                    frontier[tails[sideIter]++] = adjacent;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private void rebuildIfOutdated() {
+        if (isOutdated) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        nodesCount = graph.getNodeIndex().size();
+
+        parents = new int[nodesCount];
+        sizes = new int[nodesCount];
+        sides = new int[nodesCount];
+        firstFrontier = new int[nodesCount];
+        secondFrontier = new int[nodesCount];
+        componentsCount = nodesCount;
+        isOutdated = false;
+
+        for (int node = 0; node < nodesCount; node++) {
+            parents[node] = node;
+            sizes[node] = 1;
+        }
+
+        for (Arc arc : graph.getArcs()) {
+            addArc(arc);
+        }
+    }
+
+    private void grow(int capacity) {
+        parents = Arrays.copyOf(parents, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+        sides = Arrays.copyOf(sides, capacity);
+        firstFrontier = new int[capacity];
+        secondFrontier = new int[capacity];
+    }
+
+    /*
+     *      Union-find
+     */
+
+    // Path halving
+    private int find(int node) {
+        while (parents[node] != node) {
+            parents[node] = parents[parents[node]];
+            node = parents[node];
+        }
+
+        return node;
+    }
+
+    // Union by size
+    private void union(int first, int second) {
+        int firstRoot = find(first);
+        int secondRoot = find(second);
+
+        if (firstRoot == secondRoot) {
+            return;
+        }
+
+        if (sizes[firstRoot] < sizes[secondRoot]) {
+            int swap = firstRoot;
+            firstRoot = secondRoot;
+            secondRoot = swap;
+        }
+
+        parents[secondRoot] = firstRoot;
+        sizes[firstRoot] += sizes[secondRoot];
+        componentsCount--;
+    }
+}
@@ -0,0 +1,117 @@
+package model;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+// Distances computed on demand: a single-source row is searched the first time it's asked for
+// and kept in an LRU cache bounded by memory. Any change of the graph drops the cached rows
+public class DistanceOracle {
+    // Distance between nodes with no way from one to the other
+    public static final int INFINITY = 1000000;
+    public static final long DEFAULT_MEMORY_LIMIT = 64L * 1024 * 1024;
+
+    // Rough cost of a cache entry besides its cells
+    private static final int ROW_OVERHEAD = 64;
+
+    private Graph graph;
+    private long memoryLimit;
+
+    private long version;
+    private LinkedHashMap<Node, int[]> rows;
+
+
+    public DistanceOracle(Graph graph) {
+        this(graph, DEFAULT_MEMORY_LIMIT);
+    }
+
+    public DistanceOracle(Graph graph, long memoryLimit) {
+        this.graph = graph;
+        this.memoryLimit = memoryLimit;
+
+        version = graph.getVersion();
+        rows = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public Graph getGraph() {
+        return graph;
+    }
+
+    public synchronized long getMemoryLimit() {
+        return memoryLimit;
+    }
+
+    // In bytes; rows over the new limit are let go at once, least recently used first
+    public synchronized void setMemoryLimit(long memoryLimit) {
+        this.memoryLimit = memoryLimit;
+
+        evictOverLimit();
+    }
+
+    public synchronized int cachedRowsCount() {
+        return rows.size();
+    }
+
+    public int distance(Node begin, Node end) {
+        int endIndex = graph.indexOf(end);
+        int[] row = distancesFrom(begin);
+
+        return (row == null || endIndex == -1) ? INFINITY : row[endIndex];
+    }
+
+    // Distances from the node given by the current node indices, INFINITY for the unreachable ones.
+    // The row is shared with the cache, so it mustn't be changed
+    public synchronized int[] distancesFrom(Node begin) {
+        if (version != graph.getVersion()) {
+            rows.clear();
+            version = graph.getVersion();
+        }
+
+        int[] row = rows.get(begin);
+
+        if (row == null) {
+            GraphSnapshot snapshot = graph.snapshot();
+            int beginIndex = snapshot.indexOf(begin);
+
+            if (beginIndex == -1) {
+                return null;
+            }
+
+            row = new int[snapshot.nodesCount()];
+            snapshot.breadthFirstSearch(beginIndex, row, new int[snapshot.nodesCount()]);
+
+            for (int end = 0; end < row.length; end++) {
+                if (row[end] == GraphSnapshot.UNREACHABLE) {
+                    row[end] = INFINITY;
+                }
+            }
+
+            rows.put(begin, row);
+            evictOverLimit();
+        }
+
+        return row;
+    }
+
+    public synchronized void clear() {
+        rows.clear();
+    }
+
+    /*
+     *      Utility
+     */
+
+    // The row just searched stays even if it alone is over the limit
+    private void evictOverLimit() {
+        long rowBytes = (long) Integer.BYTES * graph.getNodeIndex().size() + ROW_OVERHEAD;
+        long maxRows = Math.max(1, memoryLimit / rowBytes);
+
+        Iterator<Map.Entry<Node, int[]>> iterator = rows.entrySet().iterator();
+
+        while (rows.size() > maxRows && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+}
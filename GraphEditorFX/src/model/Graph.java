@@ -1,10 +1,13 @@
 package model;
 
+import javafx.beans.property.StringProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.WeakChangeListener;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 
 public class Graph {
@@ -13,12 +16,32 @@ public class Graph {
     private ObservableList<Node> nodes;
     private ObservableList<Arc> arcs;
 
+    // Indexes kept in sync with the lists above
+    private NodeIndex nodeIndex;
+    private Map<String, Set<Node>> nodesByName;
+    private ArcStore arcStore;
+
+    // Bumped on every node or arc change
+    private long version;
+    private GraphSnapshot snapshot;
+
+    private ChangeListener<String> nodeRenamingListener;
+    private WeakChangeListener<String> weakNodeRenamingListener;
+
 
     public Graph(String name) {
         this.name = name;
 
         nodes = FXCollections.observableArrayList();
         arcs = FXCollections.observableArrayList();
+
+        nodeIndex = new NodeIndex();
+        nodesByName = new HashMap<>();
+        arcStore = new ArcStore();
+
+        version = 0;
+        snapshot = null;
+        configureIndexes();
     }
 
     public Graph() {
@@ -33,6 +56,14 @@ public class Graph {
         return arcs;
     }
 
+    public NodeIndex getNodeIndex() {
+        return nodeIndex;
+    }
+
+    public ArcStore getArcStore() {
+        return arcStore;
+    }
+
     public String getName() {
         return name;
     }
@@ -41,54 +72,65 @@ public class Graph {
         this.name = name;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    // Immutable view of the current state; it's built once per graph version
+    // and may be handed to another thread while the graph keeps changing
+    public GraphSnapshot snapshot() {
+        if (snapshot == null || snapshot.getVersion() != version) {
+            snapshot = new GraphSnapshot(this);
+        }
+
+        return snapshot;
+    }
+
     /*
      *      Searchers
      */
 
     public Arc getArc(Node begin, Node end) {
-        for (Arc arc : arcs) {
-            if (arc.getBegin().equals(begin) && arc.getEnd().equals(end)) {
-                return arc;
-            }
-        }
+        return arcStore.first(begin, end);
+    }
 
-        return null;
+    public List<Arc> getArcsBetween(Node begin, Node end) {
+        return arcStore.arcsBetween(begin, end);
     }
 
-    public Node getNode(String name) {
-        for (Node node : nodes) {
-            if (node.getName().equals(name)) {
-                return node;
-            }
-        }
+    // Index of the node in 0..V-1; deleting a node hands its index over to the last one
+    public int indexOf(Node node) {
+        return nodeIndex.indexOf(node);
+    }
 
-        return null;
+    public Node nodeAt(int index) {
+        return nodeIndex.nodeAt(index);
     }
 
-    public List<Arc> loops() {
-        List<Arc> loops = new ArrayList<>();
+    public Node getNode(String name) {
+        Set<Node> namesakes = nodesByName.get(name);
 
-        for (Arc arc : arcs) {
-            if (arc.getBegin().equals(arc.getEnd())) {
-                loops.add(arc);
-            }
-        }
+        return namesakes == null ? null : namesakes.iterator().next();
+    }
 
-        return loops;
+    public List<Arc> loops() {
+        return new ArrayList<>(arcStore.loops());
     }
 
     /*
      *      'Contains' methods
      */
 
-    public boolean containsLoop() {
-        for (Arc arc : arcs) {
-            if (arc.getBegin().equals(arc.getEnd())) {
-                return true;
-            }
-        }
+    public boolean containsArc(Node begin, Node end) {
+        return arcStore.contains(begin, end);
+    }
 
-        return false;
+    public boolean containsParallelArcs(Node begin, Node end) {
+        return arcStore.containsParallelArcs(begin, end);
+    }
+
+    public boolean containsLoop() {
+        return !arcStore.loops().isEmpty();
     }
 
     /*
@@ -110,4 +152,79 @@ public class Graph {
 
         return undirectedGraph;
     }
+
+    /*
+     *      Configs
+     */
+
+    // Indexes are registered first, so any later listener of the lists sees them up to date
+    private void configureIndexes() {
+        nodeRenamingListener = (observable, oldName, newName) -> {
+            Node node = (Node) ((StringProperty) observable).getBean();
+
+            unindexName(node, oldName);
+            indexName(node, newName);
+        };
+        weakNodeRenamingListener = new WeakChangeListener<>(nodeRenamingListener);
+
+        nodes.addListener((ListChangeListener<Node>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) {
+                    continue;
+                }
+
+                for (Node node : change.getRemoved()) {
+                    node.nameProperty().removeListener(weakNodeRenamingListener);
+                    unindexName(node, node.getName());
+                    nodeIndex.remove(node);
+                }
+
+                for (Node node : change.getAddedSubList()) {
+                    node.nameProperty().addListener(weakNodeRenamingListener);
+                    indexName(node, node.getName());
+                    nodeIndex.add(node);
+                }
+            }
+
+            version++;
+        });
+
+        arcs.addListener((ListChangeListener<Arc>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) {
+                    continue;
+                }
+
+                for (Arc arc : change.getRemoved()) {
+                    arcStore.remove(arc);
+                }
+
+                for (Arc arc : change.getAddedSubList()) {
+                    arcStore.add(arc);
+                }
+            }
+
+            version++;
+        });
+    }
+
+    /*
+     *      Utility
+     */
+
+    private void indexName(Node node, String name) {
+        nodesByName.computeIfAbsent(name, key -> new LinkedHashSet<>()).add(node);
+    }
+
+    private void unindexName(Node node, String name) {
+        Set<Node> namesakes = nodesByName.get(name);
+
+        if (namesakes != null) {
+            namesakes.remove(node);
+
+            if (namesakes.isEmpty()) {
+                nodesByName.remove(name);
+            }
+        }
+    }
 }
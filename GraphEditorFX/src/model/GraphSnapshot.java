@@ -0,0 +1,187 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+
+
+// Immutable compressed sparse row view of a graph: arcs of the node with index i
+// are kept at positions [begin(i), end(i)) of the targets/sources arrays
+public final class GraphSnapshot {
+    public static final int UNREACHABLE = -1;
+
+    private final long version;
+    private final NodeIndex nodeIndex;
+
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final Arc[] outArcs;
+
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private final Arc[] inArcs;
+
+
+    public GraphSnapshot(Graph graph) {
+        version = graph.getVersion();
+        nodeIndex = new NodeIndex(graph.getNodeIndex());
+
+        int nodesCount = nodeIndex.size();
+        List<Arc> arcs = graph.getArcs();
+
+        int[] begins = new int[arcs.size()];
+        int[] ends = new int[arcs.size()];
+        int arcsCount = 0;
+
+        outOffsets = new int[nodesCount + 1];
+        inOffsets = new int[nodesCount + 1];
+
+        for (int arcIter = 0; arcIter < arcs.size(); arcIter++) {
+            begins[arcIter] = nodeIndex.indexOf(arcs.get(arcIter).getBegin());
+            ends[arcIter] = nodeIndex.indexOf(arcs.get(arcIter).getEnd());
+
+            // Arcs of nodes that are already gone are skipped
+            if (begins[arcIter] != -1 && ends[arcIter] != -1) {
+                outOffsets[begins[arcIter] + 1]++;
+                inOffsets[ends[arcIter] + 1]++;
+                arcsCount++;
+            }
+        }
+
+        for (int nodeIter = 0; nodeIter < nodesCount; nodeIter++) {
+            outOffsets[nodeIter + 1] += outOffsets[nodeIter];
+            inOffsets[nodeIter + 1] += inOffsets[nodeIter];
+        }
+
+        outTargets = new int[arcsCount];
+        outArcs = new Arc[arcsCount];
+        inSources = new int[arcsCount];
+        inArcs = new Arc[arcsCount];
+
+        int[] outFill = new int[nodesCount];
+        int[] inFill = new int[nodesCount];
+
+        for (int arcIter = 0; arcIter < arcs.size(); arcIter++) {
+            int begin = begins[arcIter];
+            int end = ends[arcIter];
+
+            if (begin == -1 || end == -1) {
+                continue;
+            }
+
+            int outPosition = outOffsets[begin] + outFill[begin]++;
+            outTargets[outPosition] = end;
+            outArcs[outPosition] = arcs.get(arcIter);
+
+            int inPosition = inOffsets[end] + inFill[end]++;
+            inSources[inPosition] = begin;
+            inArcs[inPosition] = arcs.get(arcIter);
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int nodesCount() {
+        return nodeIndex.size();
+    }
+
+    public int arcsCount() {
+        return outTargets.length;
+    }
+
+    public int indexOf(Node node) {
+        return nodeIndex.indexOf(node);
+    }
+
+    public Node nodeAt(int index) {
+        return nodeIndex.nodeAt(index);
+    }
+
+    /*
+     *      Out-arcs
+     */
+
+    public int outBegin(int node) {
+        return outOffsets[node];
+    }
+
+    public int outEnd(int node) {
+        return outOffsets[node + 1];
+    }
+
+    public int outDegree(int node) {
+        return outOffsets[node + 1] - outOffsets[node];
+    }
+
+    public int outTarget(int position) {
+        return outTargets[position];
+    }
+
+    public Arc outArc(int position) {
+        return outArcs[position];
+    }
+
+    /*
+     *      In-arcs
+     */
+
+    public int inBegin(int node) {
+        return inOffsets[node];
+    }
+
+    public int inEnd(int node) {
+        return inOffsets[node + 1];
+    }
+
+    public int inDegree(int node) {
+        return inOffsets[node + 1] - inOffsets[node];
+    }
+
+    public int inSource(int position) {
+        return inSources[position];
+    }
+
+    public Arc inArc(int position) {
+        return inArcs[position];
+    }
+
+    /*
+     *      Traversals
+     */
+
+    // Breadth-first search over out-arcs. Fills the distances (UNREACHABLE for the
+    // nodes not reached) and the queue in visiting order, so queue[reached - 1] is
+    // one of the farthest nodes. Returns the count of reached nodes
+    public int breadthFirstSearch(int source, int[] distances, int[] queue) {
+        Arrays.fill(distances, 0, nodesCount(), UNREACHABLE);
+
+        return localBreadthFirstSearch(source, distances, queue);
+    }
+
+    // The same search for callers that put UNREACHABLE back into the reached cells themselves,
+    // so that it costs only as much as the part of the graph it reaches
+    public int localBreadthFirstSearch(int source, int[] distances, int[] queue) {
+        int head = 0;
+        int tail = 0;
+
+        distances[source] = 0;
+        queue[tail++] = source;
+
+        while (head != tail) {
+            int current = queue[head++];
+            int nextDistance = distances[current] + Arc.WEIGHT;
+
+            for (int arcIter = outOffsets[current]; arcIter < outOffsets[current + 1]; arcIter++) {
+                int adjacent = outTargets[arcIter];
+
+                if (distances[adjacent] == UNREACHABLE) {
+                    distances[adjacent] = nextDistance;
+                    queue[tail++] = adjacent;
+                }
+            }
+        }
+
+        return tail;
+    }
+}
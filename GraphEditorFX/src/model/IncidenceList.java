@@ -2,7 +2,6 @@ package model;
 
 import javafx.collections.ListChangeListener;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,13 +21,7 @@ public class IncidenceList {
     }
 
     public List<Arc> setIncidentArcsFor(Node node) {
-        List<Arc> incidents = new ArrayList<>();
-
-        for (Arc arc : graph.getArcs()) {
-            if (arc.getBegin().equals(node)) {
-                incidents.add(arc);
-            }
-        }
+        List<Arc> incidents = graph.getArcStore().outgoingArcs(node);
 
         //incidenceLists.put(node, incidents);
 
@@ -39,22 +32,49 @@ public class IncidenceList {
      *      Configs
      */
 
+    // Every change patches only the lists of the nodes it touches
     private void configureIncidenceList() {
         for (Node node : graph.getNodes()) {
             incidenceLists.put(node, setIncidentArcsFor(node));
         }
 
-        graph.getArcs().addListener((ListChangeListener) changeList -> {
-            incidenceLists.clear();
-            for (Node node : graph.getNodes()) {
-                incidenceLists.put(node, setIncidentArcsFor(node));
+        graph.getArcs().addListener((ListChangeListener<Arc>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) {
+                    continue;
+                }
+
+                for (Arc arc : change.getRemoved()) {
+                    List<Arc> incidents = incidenceLists.get(arc.getBegin());
+
+                    if (incidents != null) {
+                        incidents.removeIf(incident -> incident == arc);
+                    }
+                }
+
+                for (Arc arc : change.getAddedSubList()) {
+                    List<Arc> incidents = incidenceLists.get(arc.getBegin());
+
+                    if (incidents != null) {
+                        incidents.add(arc);
+                    }
+                }
             }
         });
 
-        graph.getNodes().addListener((ListChangeListener) changeList -> {
-            incidenceLists.clear();
-            for (Node node : graph.getNodes()) {
-                incidenceLists.put(node, setIncidentArcsFor(node));
+        graph.getNodes().addListener((ListChangeListener<Node>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) {
+                    continue;
+                }
+
+                for (Node node : change.getRemoved()) {
+                    incidenceLists.remove(node);
+                }
+
+                for (Node node : change.getAddedSubList()) {
+                    incidenceLists.put(node, setIncidentArcsFor(node));
+                }
             }
         });
     }
@@ -0,0 +1,68 @@
+package model;
+
+import java.util.*;
+import java.util.function.IntFunction;
+
+
+// Read-only map over the nodes of an index in index order, values are computed on demand
+class IndexedMap<V> extends AbstractMap<Node, V> {
+    private NodeIndex nodeIndex;
+    private IntFunction<V> valueAt;
+
+
+    IndexedMap(NodeIndex nodeIndex, IntFunction<V> valueAt) {
+        this.nodeIndex = nodeIndex;
+        this.valueAt = valueAt;
+    }
+
+    @Override
+    public V get(Object node) {
+        int index = node instanceof Node ? nodeIndex.indexOf((Node) node) : -1;
+
+        return index == -1 ? null : valueAt.apply(index);
+    }
+
+    @Override
+    public boolean containsKey(Object node) {
+        return node instanceof Node && nodeIndex.contains((Node) node);
+    }
+
+    @Override
+    public int size() {
+        return nodeIndex.size();
+    }
+
+    @Override
+    public Set<Entry<Node, V>> entrySet() {
+        return new AbstractSet<Entry<Node, V>>() {
+            @Override
+            public Iterator<Entry<Node, V>> iterator() {
+                return new Iterator<Entry<Node, V>>() {
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < nodeIndex.size();
+                    }
+
+                    @Override
+                    public Entry<Node, V> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+
+                        Entry<Node, V> entry = new SimpleImmutableEntry<>(nodeIndex.nodeAt(index), valueAt.apply(index));
+                        index++;
+
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return nodeIndex.size();
+            }
+        };
+    }
+}
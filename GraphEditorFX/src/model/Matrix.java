@@ -5,29 +5,42 @@ import javafx.collections.ListChangeListener;
 import java.util.*;
 
 
+// Adjacency matrix kept as one bitset row per node index: bit j of row i is set
+// when there is at least one arc from the i-th node to the j-th one.
+// Copies share rows with their parent until one of them writes to a row
 public class Matrix {
+    private static final int WORD_SIZE = Long.SIZE;
+
     private Graph graph;
-    private Map<Node, Map<Node, Boolean>> adjacencyMatrix;
+    private NodeIndex nodeIndex;
+    private long[][] rows;
+    private BitSet ownedRows;
 
 
     public Matrix() {
         graph = new Graph();
 
-        adjacencyMatrix = new HashMap<>();
+        nodeIndex = new NodeIndex();
+        rows = new long[0][];
+        ownedRows = new BitSet();
         configureAdjacencyMatrix();
     }
 
     public Matrix(Graph graph) {
         this.graph = graph;
 
-        adjacencyMatrix = new HashMap<>();
+        nodeIndex = new NodeIndex();
+        rows = new long[0][];
+        ownedRows = new BitSet();
         configureAdjacencyMatrix();
     }
 
     public Matrix(Matrix parent) {
         this.graph = null; // hah
 
-        adjacencyMatrix = buildFromParent(parent);
+        nodeIndex = new NodeIndex(parent.nodeIndex);
+        rows = buildFromParent(parent);
+        ownedRows = new BitSet();
 
         //configureAdjacencyMatrix();
     }
@@ -35,9 +48,9 @@ public class Matrix {
     public String matrixToString() {
         String toString = "";
 
-        for (Node node : adjacencyMatrix.keySet()) {
-            for (Boolean isAdjacent : adjacencyMatrix.get(node).values()) {
-                toString = toString.concat(isAdjacent ? "1 " : "0 ");
+        for (int begin = 0; begin < size(); begin++) {
+            for (int end = 0; end < size(); end++) {
+                toString = toString.concat(isAdjacent(begin, end) ? "1 " : "0 ");
             }
             toString = toString.concat("\n");
         }
@@ -49,8 +62,144 @@ public class Matrix {
         return graph;
     }
 
+    // Read-only view of the bitsets in the old nested map form
     public Map<Node, Map<Node, Boolean>> getAdjacencyMatrix() {
-        return adjacencyMatrix;
+        return new IndexedMap<>(nodeIndex, this::rowView);
+    }
+
+    public int size() {
+        return nodeIndex.size();
+    }
+
+    public int indexOf(Node node) {
+        return nodeIndex.indexOf(node);
+    }
+
+    public Node nodeAt(int index) {
+        return nodeIndex.nodeAt(index);
+    }
+
+    /*
+     *      Bitset operations
+     */
+
+    public boolean isAdjacent(Node begin, Node end) {
+        int beginIndex = nodeIndex.indexOf(begin);
+        int endIndex = nodeIndex.indexOf(end);
+
+        return beginIndex != -1 && endIndex != -1 && isAdjacent(beginIndex, endIndex);
+    }
+
+    public boolean isAdjacent(int begin, int end) {
+        long[] row = rows[begin];
+        int word = end / WORD_SIZE;
+
+        return word < row.length && (row[word] & (1L << end)) != 0;
+    }
+
+    // Index of the first node at or after 'from' adjacent to 'begin', or -1
+    public int nextAdjacent(int begin, int from) {
+        long[] row = rows[begin];
+        int word = from / WORD_SIZE;
+
+        if (word >= row.length) {
+            return -1;
+        }
+
+        long bits = row[word] & (-1L << from);
+
+        while (true) {
+            if (bits != 0) {
+                int next = word * WORD_SIZE + Long.numberOfTrailingZeros(bits);
+
+                return next < size() ? next : -1;
+            }
+
+            if (++word == row.length) {
+                return -1;
+            }
+
+            bits = row[word];
+        }
+    }
+
+    // Meant for detached copies: a matrix that follows a graph is overwritten by its changes
+    public void setAdjacent(Node begin, Node end, boolean isAdjacent) {
+        int beginIndex = nodeIndex.indexOf(begin);
+        int endIndex = nodeIndex.indexOf(end);
+
+        if (beginIndex != -1 && endIndex != -1) {
+            setAdjacent(beginIndex, endIndex, isAdjacent);
+        }
+    }
+
+    public void setAdjacent(int begin, int end, boolean isAdjacent) {
+        int word = end / WORD_SIZE;
+
+        if (isAdjacent == isAdjacent(begin, end)) {
+            return;
+        }
+
+        long[] row = ownedRow(begin);
+
+        if (word >= row.length) {
+            row = rows[begin] = Arrays.copyOf(row, wordsFor(size()));
+        }
+
+        if (isAdjacent) {
+            row[word] |= 1L << end;
+        } else {
+            row[word] &= ~(1L << end);
+        }
+    }
+
+    // ORs the row into the target words
+    public void orRowInto(int begin, long[] target) {
+        long[] row = rows[begin];
+
+        for (int word = 0; word < row.length && word < target.length; word++) {
+            target[word] |= row[word];
+        }
+    }
+
+    // Count of nodes adjacent to both nodes given, one AND per word
+    public int commonAdjacentCount(int first, int second) {
+        long[] firstRow = rows[first];
+        long[] secondRow = rows[second];
+        int count = 0;
+
+        for (int word = 0; word < firstRow.length && word < secondRow.length; word++) {
+            count += Long.bitCount(firstRow[word] & secondRow[word]);
+        }
+
+        return count;
+    }
+
+    // Indices of the nodes reachable from the node given, itself included
+    public BitSet reachableFrom(int source) {
+        long[] visited = new long[wordsFor(size())];
+        int[] queue = new int[size()];
+        int head = 0;
+        int tail = 0;
+
+        visited[source / WORD_SIZE] |= 1L << source;
+        queue[tail++] = source;
+
+        while (head != tail) {
+            long[] row = rows[queue[head++]];
+
+            for (int word = 0; word < row.length && word < visited.length; word++) {
+                long fresh = row[word] & ~visited[word];
+                visited[word] |= fresh;
+
+                while (fresh != 0) {
+                    queue[tail++] = word * WORD_SIZE + Long.numberOfTrailingZeros(fresh);
+                    fresh &= fresh - 1;
+                }
+            }
+        }
+
+        return BitSet.valueOf(visited);
     }
 
     /*
@@ -59,20 +208,40 @@ public class Matrix {
 
     private void configureAdjacencyMatrix() {
         for (Node node : graph.getNodes()) {
-            adjacencyMatrix.put(node, setAdjacentNodesFor(node));
+            addNode(node);
         }
 
-        graph.getArcs().addListener((ListChangeListener) changeList -> {
-            adjacencyMatrix.clear();
-            for (Node node : graph.getNodes()) {
-                adjacencyMatrix.put(node, setAdjacentNodesFor(node));
+        graph.getArcs().addListener((ListChangeListener<Arc>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) {
+                    continue;
+                }
+
+                for (Arc arc : change.getRemoved()) {
+                    if (!graph.containsArc(arc.getBegin(), arc.getEnd())) {
+                        setAdjacent(arc.getBegin(), arc.getEnd(), false);
+                    }
+                }
+
+                for (Arc arc : change.getAddedSubList()) {
+                    setAdjacent(arc.getBegin(), arc.getEnd(), true);
+                }
             }
         });
 
-        graph.getNodes().addListener((ListChangeListener) changeList -> {
-            adjacencyMatrix.clear();
-            for (Node node : graph.getNodes()) {
-                adjacencyMatrix.put(node, setAdjacentNodesFor(node));
+        graph.getNodes().addListener((ListChangeListener<Node>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) {
+                    continue;
+                }
+
+                for (Node node : change.getRemoved()) {
+                    removeNode(node);
+                }
+
+                for (Node node : change.getAddedSubList()) {
+                    addNode(node);
+                }
             }
         });
     }
@@ -81,35 +250,77 @@ public class Matrix {
      *      Utility
      */
 
-    private Map<Node, Map<Node, Boolean>> buildFromParent(Matrix parent) {
-        Map<Node, Map<Node, Boolean>> newAdjacencyMatrix = new HashMap<>();
+    private static int wordsFor(int bitsCount) {
+        return (bitsCount + WORD_SIZE - 1) / WORD_SIZE;
+    }
 
-        for (Node begin : parent.getAdjacencyMatrix().keySet()) {
-            newAdjacencyMatrix.put(begin, new HashMap<>());
+    // Takes the parent's rows without copying them; from now on neither matrix owns them
+    private long[][] buildFromParent(Matrix parent) {
+        parent.ownedRows.clear();
 
-            for (Node end : parent.getAdjacencyMatrix().get(begin).keySet()) {
-                newAdjacencyMatrix.get(begin).put(
-                        end,
-                        Boolean.valueOf(parent.getAdjacencyMatrix().get(begin).get(end))
-                );
-            }
+        return parent.rows.clone();
+    }
+
+    private long[] ownedRow(int begin) {
+        if (!ownedRows.get(begin)) {
+            rows[begin] = Arrays.copyOf(rows[begin], Math.max(rows[begin].length, wordsFor(size())));
+            ownedRows.set(begin);
         }
 
-        return newAdjacencyMatrix;
+        return rows[begin];
     }
 
-    private Map<Node, Boolean> setAdjacentNodesFor(Node node) {
-        Map<Node, Boolean> adjacentNodes = new HashMap<>();
+    private void addNode(Node node) {
+        if (nodeIndex.contains(node)) {
+            return;
+        }
+
+        int index = nodeIndex.add(node);
 
-        for (Node graphNode : graph.getNodes()) {
-            adjacentNodes.put(graphNode, false);
+        if (index == rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(2 * rows.length, 1));
         }
+        rows[index] = new long[wordsFor(size())];
+        ownedRows.set(index);
 
-        for (Node anotherGraphNode : graph.getNodes()) {
-            adjacentNodes.replace(anotherGraphNode, graph.getArcs().contains(new Arc(node, anotherGraphNode)));
+        for (Arc arc : graph.getArcStore().outgoingArcs(node)) {
+            setAdjacent(node, arc.getEnd(), true);
         }
 
-        return adjacentNodes;
+        for (Arc arc : graph.getArcStore().incomingArcs(node)) {
+            setAdjacent(arc.getBegin(), node, true);
+        }
+    }
+
+    // The last node takes the freed index over, so its row and column move there
+    private void removeNode(Node node) {
+        int last = size() - 1;
+        int freed = nodeIndex.remove(node);
+
+        if (freed == -1) {
+            return;
+        }
+
+        if (freed != last) {
+            rows[freed] = rows[last];
+            ownedRows.set(freed, ownedRows.get(last));
+        }
+        rows[last] = null;
+        ownedRows.clear(last);
+
+        for (int begin = 0; begin < last; begin++) {
+            boolean isAdjacentToLast = isAdjacent(begin, last);
+
+            setAdjacent(begin, last, false);
+
+            if (freed != last) {
+                setAdjacent(begin, freed, isAdjacentToLast);
+            }
+        }
+    }
+
+    private Map<Node, Boolean> rowView(int begin) {
+        return new IndexedMap<>(nodeIndex, end -> isAdjacent(begin, end));
     }
 
     /*
@@ -118,15 +329,10 @@ public class Matrix {
 
     public List<Node> adjacentNodesOf(Node node) {
         List<Node> adjacents = new ArrayList<>();
+        int begin = nodeIndex.indexOf(node);
 
-        Map<Node, Boolean> nodesMap = adjacencyMatrix.get(node);
-        Set<Node> nodes = nodesMap.keySet();
-
-
-        for (Node foundNode : nodes) {
-            if (adjacencyMatrix.get(node).get(foundNode)) {
-                adjacents.add(foundNode);
-            }
+        for (int end = nextAdjacent(begin, 0); end != -1; end = nextAdjacent(begin, end + 1)) {
+            adjacents.add(nodeAt(end));
         }
 
         return adjacents;
@@ -1,18 +1,21 @@
 package model;
 
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
 public class Node {
     private static long nodeCounter;
     private final long IDENTIFIER = nodeCounter++;
 
-    private String name;
+    private StringProperty name;
 
 
     public Node() {
-        name = "";
+        this("");
     }
 
     public Node(String name) {
-        this.name = name;
+        this.name = new SimpleStringProperty(this, "name", name);
     }
 
     public long getIdentifier() {
@@ -20,15 +23,19 @@ public class Node {
     }
 
     public String getName() {
-        return name;
+        return name.get();
     }
 
     public void setName(String name) {
-        this.name = name;
+        this.name.set(name);
+    }
+
+    public StringProperty nameProperty() {
+        return name;
     }
 
     @Override
     public String toString() {
-        return name.equals("") ? ("[" + IDENTIFIER + "]") : name;
+        return getName().equals("") ? ("[" + IDENTIFIER + "]") : getName();
     }
 }
@@ -0,0 +1,80 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+// Compact numbering of nodes in the range 0..size-1
+public class NodeIndex {
+    private Map<Node, Integer> indices;
+    private List<Node> nodes;
+
+
+    public NodeIndex() {
+        indices = new HashMap<>();
+        nodes = new ArrayList<>();
+    }
+
+    public NodeIndex(NodeIndex parent) {
+        indices = new HashMap<>(parent.indices);
+        nodes = new ArrayList<>(parent.nodes);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public int indexOf(Node node) {
+        Integer index = indices.get(node);
+
+        return index == null ? -1 : index;
+    }
+
+    public Node nodeAt(int index) {
+        return nodes.get(index);
+    }
+
+    public boolean contains(Node node) {
+        return indices.containsKey(node);
+    }
+
+    // Gives the node the next free index, or returns the one it already has
+    public int add(Node node) {
+        Integer index = indices.get(node);
+
+        if (index != null) {
+            return index;
+        }
+
+        indices.put(node, nodes.size());
+        nodes.add(node);
+
+        return nodes.size() - 1;
+    }
+
+    // Frees the node's index and moves the last node into it, so the range stays dense.
+    // Returns the freed index or -1 if the node wasn't indexed
+    public int remove(Node node) {
+        Integer index = indices.remove(node);
+
+        if (index == null) {
+            return -1;
+        }
+
+        Node last = nodes.remove(nodes.size() - 1);
+
+        if (last != node) {
+            nodes.set(index, last);
+            indices.put(last, index);
+        }
+
+        return index;
+    }
+
+    public void clear() {
+        indices.clear();
+        nodes.clear();
+    }
+}